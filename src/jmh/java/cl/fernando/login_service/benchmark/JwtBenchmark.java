@@ -0,0 +1,65 @@
+package cl.fernando.login_service.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import cl.fernando.login_service.util.JwtKeyRing;
+import cl.fernando.login_service.util.JwtUtil;
+import cl.fernando.login_service.util.TokenClaims;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtBenchmark {
+
+	private static final String SECRET = "cNBYx5W7aP7Q7q6r2X3UoHd6x4o7t+fPgE7nVjJc3sY=";
+	private static final String EMAIL = "juan@testssw.cl";
+
+	@Param({"HS256", "ES256"})
+	private String algorithm;
+
+	private JwtUtil jwtUtil;
+	private String token;
+
+	@Setup
+	public void setUp() {
+		jwtUtil = new JwtUtil(new JwtKeyRing(algorithm, SECRET, "", 1), 3600000, new SimpleMeterRegistry());
+		token = jwtUtil.generateToken(EMAIL);
+	}
+
+	@Benchmark
+	public String generateToken() {
+		return jwtUtil.generateToken(EMAIL);
+	}
+
+	@Benchmark
+	public TokenClaims parseToken() {
+		return jwtUtil.parseToken(token);
+	}
+
+	@Benchmark
+	public String extractEmail() {
+		return jwtUtil.extractEmail(token);
+	}
+
+	@Benchmark
+	public boolean validateToken() {
+		return jwtUtil.validateToken(token, EMAIL);
+	}
+
+}
@@ -0,0 +1,58 @@
+package cl.fernando.login_service.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import cl.fernando.login_service.service.PasswordHashingService;
+
+/**
+ * Hashes por segundo con un solo hilo (= por core) para cada algoritmo con
+ * los parámetros por defecto de application.yml.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(1)
+@Fork(1)
+public class PasswordEncoderBenchmark {
+
+	@Param({ "bcrypt", "pbkdf2", "argon2" })
+	private String encoderId;
+
+	private PasswordEncoder encoder;
+	private String hash;
+
+	@Setup
+	public void setUp() {
+		encoder = PasswordHashingService.createEncoder(encoderId, 10,
+				PasswordHashingService.DEFAULT_PBKDF2_ITERATIONS, PasswordHashingService.DEFAULT_ARGON2_MEMORY_KB,
+				PasswordHashingService.DEFAULT_ARGON2_ITERATIONS, 1);
+		hash = encoder.encode("Ab12cd34");
+	}
+
+	@Benchmark
+	public String encode() {
+		return encoder.encode("Ab12cd34");
+	}
+
+	@Benchmark
+	public boolean matches() {
+		return encoder.matches("Ab12cd34", hash);
+	}
+
+}
@@ -0,0 +1,58 @@
+package cl.fernando.login_service.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import cl.fernando.login_service.service.PasswordHashingService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PasswordHashingBenchmark {
+
+	@Param({ "10", "12" })
+	private int strength;
+
+	private BCryptPasswordEncoder encoder;
+	private PasswordHashingService hashingService;
+
+	@Setup
+	public void setUp() {
+		encoder = new BCryptPasswordEncoder(strength);
+		hashingService = new PasswordHashingService(0, 64, 60000, strength, false, 250, new SimpleMeterRegistry());
+	}
+
+	@TearDown
+	public void tearDown() {
+		hashingService.shutdown();
+	}
+
+	@Benchmark
+	public String bcryptDirect() {
+		return encoder.encode("Ab12cd34");
+	}
+
+	// Incluye el traspaso al pool de hashing y la espera del resultado
+	@Benchmark
+	public String bcryptPooled() {
+		return hashingService.encode("Ab12cd34");
+	}
+
+}
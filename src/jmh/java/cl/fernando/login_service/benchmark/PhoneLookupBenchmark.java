@@ -0,0 +1,101 @@
+package cl.fernando.login_service.benchmark;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import cl.fernando.login_service.LoginServiceApplication;
+import cl.fernando.login_service.entity.User;
+import cl.fernando.login_service.repository.UserRepository;
+
+/**
+ * Dueño de un teléfono con millones de filas en phone (dos por usuario):
+ * byE164 usa el índice (e164, user_id); byParts es la búsqueda que había
+ * antes, por number/citycode/countrycode sin índice (recorre la tabla).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = "-Xmx2g")
+public class PhoneLookupBenchmark {
+
+	private static final long FIRST_NUMBER = 10000000L;
+
+	@Param({ "2000000" })
+	private int phones;
+
+	private ConfigurableApplicationContext context;
+	private UserRepository repository;
+	private EntityManagerFactory entityManagerFactory;
+
+	@Setup
+	public void setUp() {
+		SpringApplication app = new SpringApplication(LoginServiceApplication.class);
+		app.setWebApplicationType(WebApplicationType.NONE);
+		context = app.run("--spring.jpa.show-sql=false", "--logging.level.root=WARN",
+				"--spring.datasource.url=jdbc:h2:mem:phones;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE");
+		repository = context.getBean(UserRepository.class);
+		entityManagerFactory = context.getBean(EntityManagerFactory.class);
+
+		// Carga directa en SQL: por JPA tomaría minutos
+		JdbcTemplate jdbc = context.getBean(JdbcTemplate.class);
+		jdbc.update("insert into user (id, name, email, password, created, is_active)"
+				+ " select 'u' || x, 'Bench', 'u' || x || '@bench.cl', 'hash', current_timestamp, true"
+				+ " from system_range(0, ?)", phones / 2 - 1);
+		jdbc.update("insert into phone (id, number, citycode, countrycode, e164, user_id)"
+				+ " select x, ? + x, 9, '56', '+569' || (? + x), 'u' || (x / 2)"
+				+ " from system_range(0, ?)", FIRST_NUMBER, FIRST_NUMBER, phones - 1);
+		jdbc.execute("analyze");
+	}
+
+	@TearDown
+	public void tearDown() {
+		context.close();
+	}
+
+	@Benchmark
+	public List<User> byE164() {
+		return repository.findWithPhonesByE164("+569" + randomNumber());
+	}
+
+	@Benchmark
+	public List<User> byParts() {
+		EntityManager entityManager = entityManagerFactory.createEntityManager();
+		try {
+			return entityManager.createQuery("select distinct u from User u left join fetch u.phones"
+					+ " where u.id in (select p.user.id from Phone p"
+					+ " where p.number = :number and p.citycode = 9 and p.countrycode = '56')", User.class)
+					.setParameter("number", randomNumber())
+					.getResultList();
+		} finally {
+			entityManager.close();
+		}
+	}
+
+	private long randomNumber() {
+		return FIRST_NUMBER + ThreadLocalRandom.current().nextInt(phones);
+	}
+
+}
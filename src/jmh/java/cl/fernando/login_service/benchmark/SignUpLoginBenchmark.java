@@ -0,0 +1,73 @@
+package cl.fernando.login_service.benchmark;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import cl.fernando.login_service.LoginServiceApplication;
+import cl.fernando.login_service.dto.UserRequest;
+import cl.fernando.login_service.dto.UserResponse;
+import cl.fernando.login_service.service.UserService;
+
+/**
+ * createUser y login de punta a punta contra el contexto Spring real y H2
+ * embebido, sin la capa HTTP.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SignUpLoginBenchmark {
+
+	private final AtomicLong sequence = new AtomicLong();
+
+	private ConfigurableApplicationContext context;
+	private UserService userService;
+	private String token;
+
+	@Setup
+	public void setUp() {
+		SpringApplication app = new SpringApplication(LoginServiceApplication.class);
+		app.setWebApplicationType(WebApplicationType.NONE);
+		context = app.run("--spring.jpa.show-sql=false", "--logging.level.root=WARN",
+				"--spring.datasource.url=jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE");
+		userService = context.getBean(UserService.class);
+		token = userService.createUser(request("login@bench.cl")).getToken();
+	}
+
+	@TearDown
+	public void tearDown() {
+		context.close();
+	}
+
+	@Benchmark
+	public UserResponse createUser() {
+		return userService.createUser(request("user" + sequence.incrementAndGet() + "@bench.cl"));
+	}
+
+	@Benchmark
+	public UserResponse login() {
+		return userService.login(token);
+	}
+
+	private static UserRequest request(String email) {
+		return new UserRequest("Bench User", email, "Ab12cd34", null);
+	}
+
+}
@@ -0,0 +1,75 @@
+package cl.fernando.login_service.benchmark;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.modelmapper.ModelMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import cl.fernando.login_service.dto.UserResponse;
+import cl.fernando.login_service.entity.Phone;
+import cl.fernando.login_service.entity.User;
+import cl.fernando.login_service.mapper.UserMapper;
+
+/**
+ * User → UserResponse: ModelMapper (camino anterior) contra UserMapper.
+ * Correr con el profiler gc (configurado en build.gradle) para ver bytes/op.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UserMappingBenchmark {
+
+	@Param({ "0", "3" })
+	private int phones;
+
+	private ModelMapper modelMapper;
+	private UserMapper userMapper;
+	private User user;
+
+	@Setup
+	public void setUp() {
+		modelMapper = new ModelMapper();
+		userMapper = new UserMapper();
+
+		user = new User();
+		user.setName("Juan Perez");
+		user.setEmail("juan@testssw.cl");
+		user.setPassword("$2a$10$abcdefghijklmnopqrstuv");
+		user.setCreated(LocalDateTime.now());
+		user.setLastLogin(LocalDateTime.now());
+		List<Phone> list = new ArrayList<>();
+		for (int i = 0; i < phones; i++) {
+			list.add(new Phone(null, 12345678L + i, 2, "56", user));
+		}
+		user.setPhones(list);
+	}
+
+	@Benchmark
+	public UserResponse modelMapper() {
+		UserResponse response = modelMapper.map(user, UserResponse.class);
+		response.setToken("header.payload.signature");
+		return response;
+	}
+
+	@Benchmark
+	public UserResponse userMapper() {
+		return userMapper.toResponse(user, "header.payload.signature");
+	}
+
+}
@@ -0,0 +1,86 @@
+package cl.fernando.login_service.benchmark;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import cl.fernando.login_service.dto.PhoneResponse;
+import cl.fernando.login_service.dto.UserResponse;
+import cl.fernando.login_service.mapper.UserResponseJsonModule;
+
+/**
+ * UserResponse → JSON sobre un OutputStream, como lo escribe el converter de
+ * Spring MVC: BeanSerializer estándar contra UserResponseSerializer.
+ * Correr con el profiler gc (configurado en build.gradle) para ver bytes/op.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UserResponseSerializationBenchmark {
+
+	@Param({ "0", "3" })
+	private int phones;
+
+	private ObjectWriter standard;
+	private ObjectWriter specialized;
+	private UserResponse response;
+	private final ByteArrayOutputStream out = new ByteArrayOutputStream(1024);
+
+	@Setup
+	public void setUp() {
+		standard = Jackson2ObjectMapperBuilder.json()
+				.featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+				.build()
+				.writerFor(UserResponse.class);
+		specialized = Jackson2ObjectMapperBuilder.json()
+				.featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+				.modulesToInstall(new UserResponseJsonModule())
+				.build()
+				.writerFor(UserResponse.class);
+
+		List<PhoneResponse> list = new ArrayList<>();
+		for (int i = 0; i < phones; i++) {
+			list.add(new PhoneResponse(12345678L + i, 2, "56"));
+		}
+		response = new UserResponse("3f1c2a9e-5b7d-4e8f-9a0b-1c2d3e4f5a6b", "Juan Perez", "juan@testssw.cl",
+				LocalDateTime.now(), LocalDateTime.now(), "header.payload.signature", true, list,
+				"kq0B1nV8m3sR7tY2wX5zA9cD4fG6hJ1lP0oI8uE3rT5");
+	}
+
+	@Benchmark
+	public int standard() throws IOException {
+		out.reset();
+		standard.writeValue(out, response);
+		return out.size();
+	}
+
+	@Benchmark
+	public int specialized() throws IOException {
+		out.reset();
+		specialized.writeValue(out, response);
+		return out.size();
+	}
+
+}
@@ -0,0 +1,76 @@
+package cl.fernando.login_service.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import cl.fernando.login_service.service.UserRequestValidator;
+
+/**
+ * Validaciones de formato de createUser: String.matches (camino anterior)
+ * contra UserRequestValidator. "hostile" es una entrada larga que obliga a
+ * los lookahead del password a retroceder.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ValidationBenchmark {
+
+	static final String EMAIL_REGEX = "^[\\w-\\.]+@([\\w-]+\\.)+[\\w-]{2,4}$";
+	static final String PASSWORD_REGEX = "^(?=.*[A-Z])(?=(?:.*\\d){2})([a-zA-Z\\d]{8,12})$";
+
+	@Param({ "valid", "hostile" })
+	private String input;
+
+	private String email;
+	private String password;
+
+	@Setup
+	public void setUp() {
+		if ("valid".equals(input)) {
+			email = "juan.perez@testssw.cl";
+			password = "Ab12cd34";
+		} else {
+			StringBuilder sb = new StringBuilder();
+			for (int i = 0; i < 5000; i++) {
+				sb.append("a-");
+			}
+			email = sb + "@" + sb + ".";
+			password = sb.toString();
+		}
+	}
+
+	@Benchmark
+	public boolean emailStringMatches() {
+		return email.matches(EMAIL_REGEX);
+	}
+
+	@Benchmark
+	public boolean passwordStringMatches() {
+		return password.matches(PASSWORD_REGEX);
+	}
+
+	@Benchmark
+	public boolean emailScanner() {
+		return UserRequestValidator.isValidEmail(email);
+	}
+
+	@Benchmark
+	public boolean passwordScanner() {
+		return UserRequestValidator.isValidPassword(password);
+	}
+
+}
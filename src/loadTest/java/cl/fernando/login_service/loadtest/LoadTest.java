@@ -0,0 +1,224 @@
+package cl.fernando.login_service.loadtest;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntFunction;
+
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import cl.fernando.login_service.LoginServiceApplication;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Prueba de carga de los modos de ejecución (execution.mode). Por cada modo
+ * levanta la aplicación en un puerto libre y mide login y sign-up con niveles
+ * crecientes de concurrencia: p50/p99, throughput, errores y, del lado del
+ * servidor, el máximo de hilos de Tomcat ocupados y de conexiones abiertas
+ * (gauges tomcat.* muestreados durante el paso). Al final informa, por modo y
+ * carga, la mayor concurrencia sostenida: sin errores y con p99 bajo
+ * loadtest.p99-limit-ms.
+ *
+ * ./gradlew loadTest                   (JDK 11: "virtual" cae a blocking)
+ * ./gradlew loadTest -PjavaVersion=21
+ */
+public class LoadTest {
+
+	private static final String[] MODES = { "blocking", "async", "virtual" };
+	private static final int[] CONCURRENCY = { 16, 64, 256, 1024 };
+	private static final Duration STEP = Duration.ofSeconds(Long.getLong("loadtest.step-seconds", 10));
+	private static final long P99_LIMIT_MS = Long.getLong("loadtest.p99-limit-ms", 1000);
+	private static final long SAMPLE_MILLIS = 10;
+
+	private static final ObjectMapper JSON = new ObjectMapper();
+
+	public static void main(String[] args) throws Exception {
+		Path output = Paths.get(args.length > 0 ? args[0] : "build/reports/loadtest/results.json");
+		List<Map<String, Object>> results = new ArrayList<>();
+
+		for (String mode : MODES) {
+			ConfigurableApplicationContext context = new SpringApplicationBuilder(LoginServiceApplication.class)
+					.properties("server.port=0", "execution.mode=" + mode, "logging.level.root=WARN",
+							// gauges tomcat.threads.* y tomcat.connections.*
+							"server.tomcat.mbeanregistry.enabled=true",
+							"spring.datasource.url=jdbc:h2:mem:carga-" + mode + ";DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE")
+					.run();
+			int port = Integer.parseInt(context.getEnvironment().getProperty("local.server.port"));
+			MeterRegistry registry = context.getBean(MeterRegistry.class);
+			ExecutorService clientExecutor = Executors.newFixedThreadPool(8);
+			HttpClient client = HttpClient.newBuilder().executor(clientExecutor)
+					.connectTimeout(Duration.ofSeconds(5)).build();
+			try {
+				String token = signUpAndGetToken(client, port, "carga-" + mode + "@carga.cl");
+				for (int concurrency : CONCURRENCY) {
+					results.add(run(client, registry, mode, "login", concurrency, n -> login(port, token)));
+					results.add(run(client, registry, mode, "sign-up", concurrency,
+							n -> signUp(port, "carga-" + mode + "-" + concurrency + "-" + n + "@carga.cl")));
+				}
+			} finally {
+				clientExecutor.shutdownNow();
+				context.close();
+			}
+		}
+
+		Files.createDirectories(output.getParent());
+		JSON.writerWithDefaultPrettyPrinter().writeValue(output.toFile(), results);
+		System.out.printf("%-17s %-8s %6s %10s %10s %10s %8s %8s %8s%n",
+				"mode", "workload", "conc", "req/s", "p50 ms", "p99 ms", "errors", "busy", "conns");
+		for (Map<String, Object> r : results) {
+			System.out.printf("%-17s %-8s %6d %10.1f %10.2f %10.2f %8d %8.0f %8.0f%n", r.get("mode"),
+					r.get("workload"), r.get("concurrency"), r.get("throughput"), r.get("p50Ms"), r.get("p99Ms"),
+					r.get("errors"), r.get("peakBusyThreads"), r.get("peakConnections"));
+		}
+		System.out.printf("%nConcurrencia sostenida (sin errores, p99 < %d ms):%n", P99_LIMIT_MS);
+		sustained(results).forEach((key, level) -> System.out.printf("%-26s %6d%n", key, level));
+		System.out.println("Resultados en " + output.toAbsolutePath());
+	}
+
+	private static Map<String, Object> run(HttpClient client, MeterRegistry registry, String mode, String workload,
+			int concurrency, IntFunction<HttpRequest> requests) throws InterruptedException {
+		Semaphore permits = new Semaphore(concurrency);
+		LongAdder errors = new LongAdder();
+		List<Long> latencies = Collections.synchronizedList(new ArrayList<>());
+
+		// El semáforo del cliente acota lo enviado; lo que el servidor sostuvo se lee de sus gauges
+		PeakSample busyThreads = new PeakSample();
+		PeakSample connections = new PeakSample();
+		ScheduledExecutorService sampler = Executors.newSingleThreadScheduledExecutor();
+		sampler.scheduleAtFixedRate(() -> {
+			busyThreads.update(gauge(registry, "tomcat.threads.busy"));
+			connections.update(gauge(registry, "tomcat.connections.current"));
+		}, 0, SAMPLE_MILLIS, TimeUnit.MILLISECONDS);
+
+		long start = System.nanoTime();
+		long end = start + STEP.toNanos();
+		int n = 0;
+		while (System.nanoTime() < end) {
+			permits.acquire();
+			long sent = System.nanoTime();
+			client.sendAsync(requests.apply(n++), HttpResponse.BodyHandlers.discarding())
+					.whenComplete((response, ex) -> {
+						if (ex == null && response.statusCode() < 300) {
+							latencies.add(System.nanoTime() - sent);
+						} else {
+							errors.increment();
+						}
+						permits.release();
+					});
+		}
+		permits.acquire(concurrency);
+		double seconds = (System.nanoTime() - start) / 1e9;
+		sampler.shutdownNow();
+
+		List<Long> sorted = new ArrayList<>(latencies);
+		Collections.sort(sorted);
+		Map<String, Object> result = new LinkedHashMap<>();
+		result.put("mode", effectiveMode(mode));
+		result.put("workload", workload);
+		result.put("concurrency", concurrency);
+		result.put("requests", sorted.size());
+		result.put("errors", errors.sum());
+		result.put("throughput", sorted.size() / seconds);
+		result.put("p50Ms", percentile(sorted, 0.50));
+		result.put("p99Ms", percentile(sorted, 0.99));
+		result.put("maxMs", percentile(sorted, 1.0));
+		result.put("peakBusyThreads", busyThreads.get());
+		result.put("peakConnections", connections.get());
+		return result;
+	}
+
+	// Mayor nivel de concurrencia por modo y carga que no superó el umbral (0 si ninguno)
+	private static Map<String, Integer> sustained(List<Map<String, Object>> results) {
+		Map<String, Integer> levels = new LinkedHashMap<>();
+		for (Map<String, Object> r : results) {
+			String key = r.get("mode") + " " + r.get("workload");
+			levels.putIfAbsent(key, 0);
+			boolean ok = (Long) r.get("errors") == 0 && (Double) r.get("p99Ms") < P99_LIMIT_MS;
+			if (ok) {
+				levels.merge(key, (Integer) r.get("concurrency"), Math::max);
+			}
+		}
+		return levels;
+	}
+
+	private static double gauge(MeterRegistry registry, String name) {
+		Gauge gauge = registry.find(name).gauge();
+		return gauge != null ? gauge.value() : -1;
+	}
+
+	// Solo la escribe el hilo del muestreo
+	private static final class PeakSample {
+		private volatile double max = -1;
+
+		void update(double value) {
+			if (value > max) {
+				max = value;
+			}
+		}
+
+		double get() {
+			return max;
+		}
+	}
+
+	private static String effectiveMode(String mode) {
+		if ("virtual".equals(mode) && Runtime.version().feature() < 21) {
+			return "virtual(blocking)";
+		}
+		return mode;
+	}
+
+	private static double percentile(List<Long> sorted, double p) {
+		if (sorted.isEmpty()) {
+			return 0.0;
+		}
+		int index = (int) Math.ceil(p * sorted.size()) - 1;
+		return sorted.get(Math.max(0, index)) / 1e6;
+	}
+
+	private static String signUpAndGetToken(HttpClient client, int port, String email) throws Exception {
+		HttpResponse<String> response = client.send(signUp(port, email), HttpResponse.BodyHandlers.ofString());
+		if (response.statusCode() != 201) {
+			throw new IllegalStateException("Sign-up inicial falló: " + response.statusCode() + " " + response.body());
+		}
+		return JSON.readTree(response.body()).get("token").asText();
+	}
+
+	private static HttpRequest signUp(int port, String email) {
+		String body = "{\"name\":\"Carga\",\"email\":\"" + email + "\",\"password\":\"Ab12cd34\",\"phones\":[]}";
+		return HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/sign-up"))
+				.timeout(Duration.ofSeconds(30))
+				.header("Content-Type", "application/json")
+				.POST(HttpRequest.BodyPublishers.ofString(body))
+				.build();
+	}
+
+	private static HttpRequest login(int port, String token) {
+		return HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/login"))
+				.timeout(Duration.ofSeconds(30))
+				.header("Authorization", "Bearer " + token)
+				.POST(HttpRequest.BodyPublishers.noBody())
+				.build();
+	}
+
+}
@@ -0,0 +1,232 @@
+package cl.fernando.login_service.loadtest;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.ToDoubleFunction;
+
+import org.flywaydb.core.Flyway;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import cl.fernando.login_service.LoginServiceApplication;
+
+/**
+ * Costo de arranque por configuración: cada corrida levanta la aplicación en
+ * otra JVM y mide, desde que se lanza el proceso, el primer sign-up y el
+ * primer login por contraseña exitosos; después lee el heap usado (actuator)
+ * y el RSS del proceso. Se informa la mediana de {@code startup.runs} corridas.
+ * Cada corrida parte de una copia de la misma base H2 en archivo con
+ * {@code startup.seed-users} usuarios, así el tiempo incluye la precarga del
+ * índice de emails y la primera consulta sobre una tabla con datos.
+ *
+ * ./gradlew startupBenchmark            (./gradlew appCds antes para incluir AppCDS)
+ */
+public class StartupBenchmark {
+
+	private static final int RUNS = Integer.getInteger("startup.runs", 5);
+	private static final Duration TIMEOUT = Duration.ofSeconds(120);
+	private static final String PASSWORD = "Ab12cd34";
+	private static final int SEED_USERS = Integer.getInteger("startup.seed-users", 100_000);
+
+	private static final ObjectMapper JSON = new ObjectMapper();
+	private static final HttpClient CLIENT = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(1)).build();
+
+	public static void main(String[] args) throws Exception {
+		Path output = Paths.get(args.length > 0 ? args[0] : "build/reports/startup/results.json");
+		String classpath = System.getProperty("startup.classpath", System.getProperty("java.class.path"));
+		String archive = System.getProperty("startup.appcds", "");
+
+		Map<String, List<String>> variants = new LinkedHashMap<>();
+		variants.put("default", Collections.emptyList());
+		variants.put("fast-start", Collections.singletonList("--spring.profiles.active=fast-start"));
+		if (!archive.isEmpty() && new File(archive).isFile()) {
+			variants.put("fast-start+appcds", Collections.singletonList("--spring.profiles.active=fast-start"));
+		} else {
+			System.out.println("Sin archivo AppCDS (" + archive + "): correr ./gradlew appCds para incluirlo");
+		}
+
+		Files.createDirectories(output.getParent());
+		Path seed = seedDatabase(output.getParent().resolve("seed"));
+		List<Map<String, Object>> results = new ArrayList<>();
+		for (Map.Entry<String, List<String>> variant : variants.entrySet()) {
+			List<String> jvmArgs = variant.getKey().endsWith("appcds")
+					? Collections.singletonList("-XX:SharedArchiveFile=" + archive)
+					: Collections.emptyList();
+			List<Map<String, Double>> runs = new ArrayList<>();
+			for (int run = 0; run < RUNS; run++) {
+				Path log = output.getParent().resolve(variant.getKey() + "-" + run + ".log");
+				String id = variant.getKey().replaceAll("[^a-z]", "") + run;
+				Path db = output.getParent().resolve("db-" + id);
+				Files.copy(seed, Paths.get(db + ".mv.db"), StandardCopyOption.REPLACE_EXISTING);
+				runs.add(measure(classpath, jvmArgs, variant.getValue(), log, id, db));
+			}
+			Map<String, Object> result = new LinkedHashMap<>();
+			result.put("variant", variant.getKey());
+			result.put("runs", RUNS);
+			result.put("firstResponseMs", median(runs, r -> r.get("firstResponseMs")));
+			result.put("firstLoginMs", median(runs, r -> r.get("firstLoginMs")));
+			result.put("heapUsedMb", median(runs, r -> r.get("heapUsedMb")));
+			result.put("rssMb", median(runs, r -> r.get("rssMb")));
+			results.add(result);
+		}
+
+		JSON.writerWithDefaultPrettyPrinter().writeValue(output.toFile(), results);
+		System.out.printf("%-18s %16s %14s %12s %10s%n", "variant", "1st response ms", "1st login ms", "heap MB", "RSS MB");
+		for (Map<String, Object> r : results) {
+			System.out.printf("%-18s %16.0f %14.0f %12.1f %10.1f%n", r.get("variant"), r.get("firstResponseMs"),
+					r.get("firstLoginMs"), r.get("heapUsedMb"), r.get("rssMb"));
+		}
+		System.out.println("Resultados en " + output.toAbsolutePath());
+	}
+
+	private static Map<String, Double> measure(String classpath, List<String> jvmArgs, List<String> appArgs,
+			Path log, String id, Path db) throws Exception {
+		int port = freePort();
+		List<String> command = new ArrayList<>();
+		command.add(Paths.get(System.getProperty("java.home"), "bin", "java").toString());
+		command.addAll(jvmArgs);
+		command.add("-cp");
+		command.add(classpath);
+		command.add(LoginServiceApplication.class.getName());
+		command.add("--server.port=" + port);
+		command.add("--logging.level.root=WARN");
+		command.add("--spring.datasource.url=jdbc:h2:file:" + db.toAbsolutePath() + ";DB_CLOSE_ON_EXIT=FALSE");
+		command.addAll(appArgs);
+
+		long start = System.nanoTime();
+		Process process = new ProcessBuilder(command).redirectErrorStream(true).redirectOutput(log.toFile()).start();
+		try {
+			String email = "arranque-" + id + "@startup.cl";
+			String signUpBody = "{\"name\":\"Arranque\",\"email\":\"" + email + "\",\"password\":\"" + PASSWORD
+					+ "\",\"phones\":[]}";
+			long firstResponse = awaitStatus(process, start, post(port, "/api/sign-up", signUpBody), 201);
+			String loginBody = "{\"email\":\"" + email + "\",\"password\":\"" + PASSWORD + "\"}";
+			long firstLogin = awaitStatus(process, start, post(port, "/api/login/password", loginBody), 200);
+
+			Map<String, Double> result = new LinkedHashMap<>();
+			result.put("firstResponseMs", firstResponse / 1e6);
+			result.put("firstLoginMs", firstLogin / 1e6);
+			result.put("heapUsedMb", heapUsed(port) / (1024.0 * 1024.0));
+			result.put("rssMb", rss(process.pid()) / 1024.0);
+			return result;
+		} finally {
+			process.destroy();
+			process.waitFor();
+		}
+	}
+
+	// Esquema con Flyway (las mismas migraciones que la aplicación) y usuarios en lotes; se arma una vez
+	private static Path seedDatabase(Path base) throws Exception {
+		Path file = Paths.get(base + ".mv.db");
+		Files.deleteIfExists(file);
+		String url = "jdbc:h2:file:" + base.toAbsolutePath();
+		Flyway.configure().dataSource(url, "sa", "").load().migrate();
+		String hash = new BCryptPasswordEncoder().encode(PASSWORD);
+		Timestamp now = new Timestamp(System.currentTimeMillis());
+		try (Connection connection = DriverManager.getConnection(url, "sa", "");
+				PreparedStatement insert = connection.prepareStatement("insert into user"
+						+ " (id, name, email, password, created, last_login, is_active) values (?, ?, ?, ?, ?, ?, true)")) {
+			connection.setAutoCommit(false);
+			for (int i = 0; i < SEED_USERS; i++) {
+				insert.setString(1, UUID.randomUUID().toString());
+				insert.setString(2, "Semilla " + i);
+				insert.setString(3, "semilla-" + i + "@startup.cl");
+				insert.setString(4, hash);
+				insert.setTimestamp(5, now);
+				insert.setTimestamp(6, now);
+				insert.addBatch();
+				if (i % 1000 == 999) {
+					insert.executeBatch();
+				}
+			}
+			insert.executeBatch();
+			connection.commit();
+		}
+		System.out.println("Base semilla con " + SEED_USERS + " usuarios");
+		return file;
+	}
+
+	// Reintenta hasta que el puerto acepta y responde el status esperado; devuelve nanos desde el lanzamiento
+	private static long awaitStatus(Process process, long start, HttpRequest request, int expected)
+			throws Exception {
+		long deadline = start + TIMEOUT.toNanos();
+		while (System.nanoTime() < deadline) {
+			if (!process.isAlive()) {
+				throw new IllegalStateException("La aplicación terminó al arrancar (código " + process.exitValue() + ")");
+			}
+			try {
+				HttpResponse<String> response = CLIENT.send(request, HttpResponse.BodyHandlers.ofString());
+				if (response.statusCode() == expected) {
+					return System.nanoTime() - start;
+				}
+				throw new IllegalStateException(request.uri() + " respondió " + response.statusCode() + " "
+						+ response.body());
+			} catch (IOException e) {
+				Thread.sleep(10);
+			}
+		}
+		throw new IllegalStateException("Sin respuesta de " + request.uri() + " en " + TIMEOUT);
+	}
+
+	private static double heapUsed(int port) throws Exception {
+		HttpRequest request = HttpRequest.newBuilder(URI.create(
+				"http://localhost:" + port + "/actuator/metrics/jvm.memory.used?tag=area:heap")).build();
+		String body = CLIENT.send(request, HttpResponse.BodyHandlers.ofString()).body();
+		return JSON.readTree(body).get("measurements").get(0).get("value").asDouble();
+	}
+
+	// VmRSS en kB; -1 fuera de Linux
+	private static double rss(long pid) {
+		try {
+			for (String line : Files.readAllLines(Paths.get("/proc/" + pid + "/status"))) {
+				if (line.startsWith("VmRSS:")) {
+					return Double.parseDouble(line.replaceAll("[^0-9]", ""));
+				}
+			}
+		} catch (IOException e) {
+			// sin /proc
+		}
+		return -1024;
+	}
+
+	private static HttpRequest post(int port, String path, String body) {
+		return HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+				.timeout(Duration.ofSeconds(30))
+				.header("Content-Type", "application/json")
+				.POST(HttpRequest.BodyPublishers.ofString(body))
+				.build();
+	}
+
+	private static int freePort() throws IOException {
+		try (ServerSocket socket = new ServerSocket(0)) {
+			return socket.getLocalPort();
+		}
+	}
+
+	private static double median(List<Map<String, Double>> runs, ToDoubleFunction<Map<String, Double>> metric) {
+		double[] values = runs.stream().mapToDouble(metric).sorted().toArray();
+		return values[values.length / 2];
+	}
+
+}
@@ -0,0 +1,53 @@
+package cl.fernando.login_service.config;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import cl.fernando.login_service.exception.InvalidTokenException;
+
+/**
+ * /admin/users (export, import, by-phone, batch) y /admin/shards solo existen
+ * con users.admin.enabled y cada request debe traer users.admin.token en el
+ * header X-Admin-Token; sin token configurado la aplicación no arranca.
+ */
+@Configuration
+@ConditionalOnProperty(name = "users.admin.enabled", havingValue = "true")
+public class AdminWebConfig implements WebMvcConfigurer {
+
+	static final String TOKEN_HEADER = "X-Admin-Token";
+
+	private final byte[] token;
+
+	public AdminWebConfig(@Value("${users.admin.token:}") String token) {
+		if (token.trim().isEmpty()) {
+			throw new IllegalStateException("users.admin.enabled requiere users.admin.token");
+		}
+		this.token = token.getBytes(StandardCharsets.UTF_8);
+	}
+
+	@Override
+	public void addInterceptors(InterceptorRegistry registry) {
+		registry.addInterceptor(new HandlerInterceptor() {
+			@Override
+			public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+				String presented = request.getHeader(TOKEN_HEADER);
+				// Comparación en tiempo constante; la excepción la responde GlobalExceptionHandler (401)
+				if (presented == null || !MessageDigest.isEqual(token, presented.getBytes(StandardCharsets.UTF_8))) {
+					throw new InvalidTokenException();
+				}
+				return true;
+			}
+		}).addPathPatterns("/admin/users/**", "/admin/shards/**");
+	}
+
+}
@@ -0,0 +1,99 @@
+package cl.fernando.login_service.config;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+
+import org.springframework.core.MethodParameter;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.method.support.HandlerMethodReturnValueHandler;
+import org.springframework.web.method.support.ModelAndViewContainer;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerAdapter;
+
+/**
+ * Los endpoints de UserController devuelven CompletableFuture para el modo
+ * async, pero en blocking y virtual el future ya viene completo. Para esos
+ * casos la respuesta se escribe en el mismo dispatch, sin pasar por el
+ * procesamiento asíncrono de Spring MVC (inicio async, re-dispatch y segunda
+ * pasada de filtros). Los futures pendientes siguen el camino async normal.
+ */
+public class CompletedFutureReturnValueHandler implements HandlerMethodReturnValueHandler {
+
+	private static final MethodParameter RESPONSE_ENTITY;
+
+	static {
+		try {
+			Method method = CompletedFutureReturnValueHandler.class.getDeclaredMethod("responseEntity");
+			RESPONSE_ENTITY = new MethodParameter(method, -1);
+		} catch (NoSuchMethodException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private final List<HandlerMethodReturnValueHandler> delegates;
+
+	CompletedFutureReturnValueHandler(List<HandlerMethodReturnValueHandler> delegates) {
+		this.delegates = delegates;
+	}
+
+	/** Lo pone antes de los handlers de Spring en el adapter ya inicializado. */
+	public static void install(RequestMappingHandlerAdapter adapter) {
+		List<HandlerMethodReturnValueHandler> defaults = adapter.getReturnValueHandlers();
+		if (defaults == null) {
+			return;
+		}
+		List<HandlerMethodReturnValueHandler> handlers = new ArrayList<>(defaults.size() + 1);
+		handlers.add(new CompletedFutureReturnValueHandler(defaults));
+		handlers.addAll(defaults);
+		adapter.setReturnValueHandlers(handlers);
+	}
+
+	@Override
+	public boolean supportsReturnType(MethodParameter returnType) {
+		return CompletionStage.class.isAssignableFrom(returnType.getParameterType());
+	}
+
+	@Override
+	public void handleReturnValue(Object returnValue, MethodParameter returnType,
+			ModelAndViewContainer mavContainer, NativeWebRequest webRequest) throws Exception {
+		if (returnValue instanceof CompletableFuture && isCompletedResponse((CompletableFuture<?>) returnValue)) {
+			Object value = ((CompletableFuture<?>) returnValue).join();
+			delegateFor(RESPONSE_ENTITY).handleReturnValue(value, RESPONSE_ENTITY, mavContainer, webRequest);
+			return;
+		}
+		if (returnValue instanceof CompletableFuture && ((CompletableFuture<?>) returnValue).isCompletedExceptionally()) {
+			// Igual que si el endpoint hubiese lanzado la excepción directamente
+			try {
+				((CompletableFuture<?>) returnValue).join();
+			} catch (CompletionException e) {
+				if (e.getCause() instanceof Exception) {
+					throw (Exception) e.getCause();
+				}
+				throw e;
+			}
+		}
+		delegateFor(returnType).handleReturnValue(returnValue, returnType, mavContainer, webRequest);
+	}
+
+	private static boolean isCompletedResponse(CompletableFuture<?> future) {
+		return future.isDone() && !future.isCompletedExceptionally() && future.join() instanceof ResponseEntity;
+	}
+
+	private HandlerMethodReturnValueHandler delegateFor(MethodParameter returnType) {
+		for (HandlerMethodReturnValueHandler handler : delegates) {
+			if (handler.supportsReturnType(returnType)) {
+				return handler;
+			}
+		}
+		throw new IllegalStateException("Sin handler para " + returnType.getParameterType());
+	}
+
+	@SuppressWarnings("unused")
+	private static ResponseEntity<?> responseEntity() {
+		return null;
+	}
+}
@@ -0,0 +1,101 @@
+package cl.fernando.login_service.config;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerAdapter;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Modo de ejecución de la capa web (execution.mode):
+ * blocking: hilos de Tomcat, como siempre.
+ * async:    createUser y login corren en executors propios y acotados; el hilo
+ *           de Tomcat vuelve al pool mientras tanto.
+ * virtual:  Tomcat atiende cada request en un hilo virtual. Requiere ejecutar
+ *           sobre JDK 21+ (./gradlew bootRun -PjavaVersion=21); en un JDK sin
+ *           hilos virtuales se usa blocking.
+ * Solo en async hay procesamiento asíncrono de Spring MVC: en los otros modos
+ * el future ya completo se responde en el mismo dispatch.
+ */
+@Slf4j
+@Configuration
+public class ExecutionConfig {
+
+	@Bean(destroyMethod = "shutdown")
+	public RequestExecutor requestExecutor(@Value("${execution.mode:blocking}") String mode,
+			@Value("${execution.async.signup-threads:32}") int signUpThreads,
+			@Value("${execution.async.login-threads:0}") int loginThreads,
+			@Value("${execution.async.queue-capacity:1000}") int queueCapacity) {
+		if (!"async".equals(mode)) {
+			return RequestExecutor.inline();
+		}
+		int loginPoolSize = loginThreads > 0 ? loginThreads : Runtime.getRuntime().availableProcessors() * 2;
+		log.info("Modo de ejecución async: sign-up {} hilos, login {} hilos", signUpThreads, loginPoolSize);
+		return new RequestExecutor(boundedPool("signup", signUpThreads, queueCapacity),
+				boundedPool("login", loginPoolSize, queueCapacity));
+	}
+
+	@Bean
+	public static BeanPostProcessor completedFutureReturnValuePostProcessor() {
+		return new BeanPostProcessor() {
+			@Override
+			public Object postProcessAfterInitialization(Object bean, String beanName) {
+				if (bean instanceof RequestMappingHandlerAdapter) {
+					CompletedFutureReturnValueHandler.install((RequestMappingHandlerAdapter) bean);
+				}
+				return bean;
+			}
+		};
+	}
+
+	@Bean
+	@ConditionalOnProperty(name = "execution.mode", havingValue = "virtual")
+	public TomcatProtocolHandlerCustomizer<?> virtualThreadProtocolHandlerCustomizer() {
+		ExecutorService executor = newVirtualThreadPerTaskExecutor();
+		return protocolHandler -> {
+			if (executor != null) {
+				protocolHandler.setExecutor(executor);
+			}
+		};
+	}
+
+	// Por reflexión para seguir compilando con release 11
+	static ExecutorService newVirtualThreadPerTaskExecutor() {
+		try {
+			Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+			log.info("Modo de ejecución virtual: un hilo virtual por request");
+			return (ExecutorService) factory.invoke(null);
+		} catch (NoSuchMethodException e) {
+			log.warn("execution.mode=virtual requiere JDK 21+ (actual {}); se usa blocking",
+					System.getProperty("java.version"));
+			return null;
+		} catch (ReflectiveOperationException e) {
+			throw new IllegalStateException("No se pudo crear el executor de hilos virtuales", e);
+		}
+	}
+
+	private static ExecutorService boundedPool(String name, int threads, int queueCapacity) {
+		AtomicInteger counter = new AtomicInteger();
+		ThreadFactory factory = r -> {
+			Thread t = new Thread(r, name + "-" + counter.incrementAndGet());
+			t.setDaemon(true);
+			return t;
+		};
+		return new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+				new ArrayBlockingQueue<>(queueCapacity), factory, new ThreadPoolExecutor.AbortPolicy());
+	}
+
+}
@@ -0,0 +1,58 @@
+package cl.fernando.login_service.config;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Supplier;
+
+import cl.fernando.login_service.exception.ServiceBusyException;
+
+/**
+ * Ejecuta createUser y login según execution.mode. Sin executor la tarea
+ * corre en el hilo del request (modos blocking y virtual); con executor se
+ * libera el hilo de Tomcat y la respuesta se completa de forma asíncrona.
+ */
+public class RequestExecutor {
+
+	private final ExecutorService signUpExecutor;
+	private final ExecutorService loginExecutor;
+
+	public RequestExecutor(ExecutorService signUpExecutor, ExecutorService loginExecutor) {
+		this.signUpExecutor = signUpExecutor;
+		this.loginExecutor = loginExecutor;
+	}
+
+	public static RequestExecutor inline() {
+		return new RequestExecutor(null, null);
+	}
+
+	public <T> CompletableFuture<T> signUp(Supplier<T> task) {
+		return run(signUpExecutor, task);
+	}
+
+	public <T> CompletableFuture<T> login(Supplier<T> task) {
+		return run(loginExecutor, task);
+	}
+
+	public void shutdown() {
+		if (signUpExecutor != null) {
+			signUpExecutor.shutdown();
+		}
+		if (loginExecutor != null) {
+			loginExecutor.shutdown();
+		}
+	}
+
+	private static <T> CompletableFuture<T> run(ExecutorService executor, Supplier<T> task) {
+		if (executor == null) {
+			// Las excepciones salen de forma síncrona, como en un endpoint normal
+			return CompletableFuture.completedFuture(task.get());
+		}
+		try {
+			return CompletableFuture.supplyAsync(task, executor);
+		} catch (RejectedExecutionException e) {
+			throw new ServiceBusyException("Servicio ocupado, reintente más tarde");
+		}
+	}
+
+}
@@ -0,0 +1,32 @@
+package cl.fernando.login_service.config;
+
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+import cl.fernando.login_service.service.EmailIndex;
+import cl.fernando.login_service.service.LoginTracker;
+import cl.fernando.login_service.service.RefreshTokenService;
+import cl.fernando.login_service.service.ShardManager;
+import cl.fernando.login_service.service.TokenDenylist;
+import cl.fernando.login_service.util.JwtKeyRing;
+
+/**
+ * Las tareas @Scheduled se registran cuando se crea su bean. Con
+ * lazy-initialization (perfil fast-start) estos beans se crean igual al
+ * arrancar: precargan estado (índice de emails, denylist, claves, anillo de
+ * shards) o tienen tareas programadas, y si no el primer request pagaría la
+ * precarga y las tareas no correrían hasta entonces.
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+
+	@Bean
+	public static LazyInitializationExcludeFilter eagerStartupBeans() {
+		return LazyInitializationExcludeFilter.forBeanTypes(EmailIndex.class, TokenDenylist.class,
+				LoginTracker.class, JwtKeyRing.class, RefreshTokenService.class, ShardManager.class);
+	}
+
+}
@@ -0,0 +1,72 @@
+package cl.fernando.login_service.config;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+
+import cl.fernando.login_service.util.ShardContext;
+
+/**
+ * DataSource que entrega conexiones del shard fijado en ShardContext, o del
+ * primario si no hay ninguno. A diferencia de AbstractRoutingDataSource, el
+ * mapa de shards admite altas en caliente.
+ */
+public class ShardRoutingDataSource extends AbstractDataSource implements DisposableBean {
+
+	private final Map<String, DataSource> shards = new ConcurrentHashMap<>();
+	// Orden de alta: el primero es el primario y la posición fija el rango de phone_seq
+	private final List<String> order = Collections.synchronizedList(new ArrayList<>());
+
+	public synchronized int addShard(String name, DataSource dataSource) {
+		if (shards.putIfAbsent(name, dataSource) != null) {
+			throw new IllegalArgumentException("El shard ya existe: " + name);
+		}
+		order.add(name);
+		return order.size() - 1;
+	}
+
+	public DataSource getShard(String name) {
+		DataSource dataSource = shards.get(name);
+		if (dataSource == null) {
+			throw new IllegalStateException("Shard desconocido: " + name);
+		}
+		return dataSource;
+	}
+
+	public String getPrimary() {
+		return order.get(0);
+	}
+
+	@Override
+	public Connection getConnection() throws SQLException {
+		return current().getConnection();
+	}
+
+	@Override
+	public Connection getConnection(String username, String password) throws SQLException {
+		return current().getConnection(username, password);
+	}
+
+	private DataSource current() {
+		String shard = ShardContext.current();
+		return getShard(shard != null ? shard : getPrimary());
+	}
+
+	@Override
+	public void destroy() throws Exception {
+		for (DataSource dataSource : shards.values()) {
+			if (dataSource instanceof AutoCloseable) {
+				((AutoCloseable) dataSource).close();
+			}
+		}
+	}
+}
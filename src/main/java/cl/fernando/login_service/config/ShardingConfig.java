@@ -0,0 +1,143 @@
+package cl.fernando.login_service.config;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import javax.sql.DataSource;
+
+import org.flywaydb.core.Flyway;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import cl.fernando.login_service.repository.ShardRingRepository;
+import cl.fernando.login_service.repository.ShardRoutingUserRepository;
+import cl.fernando.login_service.repository.UserRepository;
+import cl.fernando.login_service.util.ShardRouter;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Modo multi-shard (sharding.enabled=true): los usuarios se reparten por
+ * hashing consistente del email normalizado entre varias bases con el mismo
+ * esquema. JPA, Flyway y JdbcTemplate ven un único ShardRoutingDataSource;
+ * UserRepository se envuelve para fijar el shard dueño antes de cada llamada.
+ * Lo que no es de usuarios (refresh tokens) queda en el primario.
+ *
+ * El anillo arranca con los shards activos de la configuración; una vez que
+ * se agrega uno en caliente, el anillo vigente es el persistido en el
+ * primario (ShardRingRepository), así un reinicio o un nodo nuevo no vuelven
+ * al anillo anterior.
+ */
+@Slf4j
+@Configuration
+@ConditionalOnProperty(name = "sharding.enabled", havingValue = "true")
+@EnableConfigurationProperties(ShardingProperties.class)
+public class ShardingConfig {
+
+	// Cada shard genera ids de phone en su propio rango: el optimizador de
+	// Hibernate reparte bloques de phone_seq sin saber de qué shard vinieron
+	private static final int PHONE_ID_SHIFT = 48;
+
+	@Bean
+	public ShardRingRepository shardRingRepository(ShardRoutingDataSource dataSource) {
+		return new ShardRingRepository(dataSource.getShard(dataSource.getPrimary()));
+	}
+
+	// Después de Flyway: el anillo persistido se lee antes de rutear cualquier usuario
+	@Bean
+	@DependsOn("flywayInitializer")
+	public ShardRouter shardRouter(ShardingProperties properties, ShardRingRepository ringRepository) {
+		List<String> active = properties.getShards().stream()
+				.filter(ShardingProperties.Shard::isActive)
+				.map(ShardingProperties.Shard::getName)
+				.collect(Collectors.toList());
+		if (!properties.isDeclaredPrefix(active)) {
+			throw new IllegalStateException("Los shards con active=false deben ir al final de sharding.shards");
+		}
+		ShardRouter router = new ShardRouter(active, properties.getVirtualNodes());
+		ringRepository.load().ifPresent(state -> {
+			if (!properties.isDeclaredPrefix(state.getShards())) {
+				throw new IllegalStateException("El anillo persistido " + state.getShards()
+						+ " no coincide con el inicio de sharding.shards " + properties.names());
+			}
+			router.adopt(state.getShards(), state.isRebalancing());
+		});
+		return router;
+	}
+
+	@Bean
+	@Primary
+	public ShardRoutingDataSource dataSource(ShardingProperties properties) {
+		if (properties.getShards().isEmpty()) {
+			throw new IllegalStateException("sharding.enabled requiere al menos un shard en sharding.shards");
+		}
+		ShardRoutingDataSource dataSource = new ShardRoutingDataSource();
+		for (ShardingProperties.Shard shard : properties.getShards()) {
+			dataSource.addShard(shard.getName(), createDataSource(shard));
+		}
+		return dataSource;
+	}
+
+	@Bean
+	public FlywayMigrationStrategy shardedMigrationStrategy(ShardingProperties properties,
+			ShardRoutingDataSource dataSource) {
+		return flyway -> {
+			List<ShardingProperties.Shard> shards = properties.getShards();
+			for (int i = 0; i < shards.size(); i++) {
+				migrate(flyway, dataSource.getShard(shards.get(i).getName()), i);
+			}
+		};
+	}
+
+	@Bean
+	public static BeanPostProcessor shardRoutingRepositoryPostProcessor(ObjectProvider<ShardRouter> router) {
+		return new BeanPostProcessor() {
+			@Override
+			public Object postProcessAfterInitialization(Object bean, String beanName) {
+				if (bean instanceof UserRepository) {
+					return ShardRoutingUserRepository.wrap((UserRepository) bean, router.getObject());
+				}
+				return bean;
+			}
+		};
+	}
+
+	public static DataSource createDataSource(ShardingProperties.Shard shard) {
+		HikariDataSource dataSource = DataSourceBuilder.create()
+				.type(HikariDataSource.class)
+				.url(shard.getUrl())
+				.username(shard.getUsername())
+				.password(shard.getPassword())
+				.build();
+		dataSource.setPoolName("shard-" + shard.getName());
+		return dataSource;
+	}
+
+	/** Aplica las migraciones de Flyway al shard y ubica phone_seq en el rango de su posición. */
+	public static void migrate(Flyway template, DataSource dataSource, int position) {
+		Flyway.configure()
+				.configuration(template.getConfiguration())
+				.dataSource(dataSource)
+				.load()
+				.migrate();
+		long start = (long) position << PHONE_ID_SHIFT;
+		JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+		Long current = jdbcTemplate.queryForObject(
+				"select current_value from information_schema.sequences where sequence_name = 'PHONE_SEQ'",
+				Long.class);
+		if (current == null || current < start) {
+			jdbcTemplate.execute("alter sequence phone_seq restart with " + (start + 1));
+		}
+		log.info("Shard en posición {} migrado", position);
+	}
+}
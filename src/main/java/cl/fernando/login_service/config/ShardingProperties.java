@@ -0,0 +1,51 @@
+package cl.fernando.login_service.config;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * sharding.*: la lista de shards no se puede leer con @Value. El primero es
+ * el primario (refresh tokens y demás tablas que no son de usuarios) y el
+ * orden no debe cambiar: la posición define el rango de ids de phone_seq.
+ * Los shards con active=false van al final: se declaran (y migran) antes de
+ * entrar al anillo con POST /admin/shards.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "sharding")
+public class ShardingProperties {
+
+	private boolean enabled;
+	private int virtualNodes = 160;
+	private int rebalanceBatchSize = 500;
+	private long refreshIntervalMs = 5000;
+	private long nodeTimeoutMs = 30000;
+	private List<Shard> shards = new ArrayList<>();
+
+	/** Nombres de todos los shards declarados, en orden. */
+	public List<String> names() {
+		return shards.stream().map(Shard::getName).collect(Collectors.toList());
+	}
+
+	/** Si el anillo son los primeros shards declarados, en el mismo orden. */
+	public boolean isDeclaredPrefix(List<String> ring) {
+		List<String> declared = names();
+		return ring.size() <= declared.size() && ring.equals(declared.subList(0, ring.size()));
+	}
+
+	@Getter
+	@Setter
+	public static class Shard {
+		private String name;
+		private String url;
+		private String username;
+		private String password;
+		private boolean active = true;
+	}
+}
@@ -0,0 +1,45 @@
+package cl.fernando.login_service.config;
+
+import java.util.Collections;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import cl.fernando.login_service.dto.UserRequest;
+import cl.fernando.login_service.service.UserServiceImpl;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Arranque de entrenamiento para el archivo AppCDS (./gradlew appCds): con
+ * startup.training-run=true, una vez lista la aplicación recorre sign-up y
+ * login (para que sus clases queden en la lista, pese a lazy-init) y termina
+ * el proceso.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "startup.training-run", havingValue = "true")
+public class StartupTrainingRun implements ApplicationListener<ApplicationReadyEvent> {
+
+	@Override
+	public void onApplicationEvent(ApplicationReadyEvent event) {
+		int exitCode = 0;
+		try {
+			UserServiceImpl userService = event.getApplicationContext().getBean(UserServiceImpl.class);
+			ObjectMapper objectMapper = event.getApplicationContext().getBean(ObjectMapper.class);
+			objectMapper.writeValueAsBytes(userService.createUser(
+					new UserRequest("Entrenamiento", "cds@entrenamiento.cl", "Ab12cd34", Collections.emptyList())));
+			objectMapper.writeValueAsBytes(
+					userService.loginWithPassword("cds@entrenamiento.cl", "Ab12cd34", "127.0.0.1"));
+		} catch (Exception e) {
+			log.error("Falló el arranque de entrenamiento", e);
+			exitCode = 1;
+		}
+		int code = exitCode;
+		System.exit(SpringApplication.exit(event.getApplicationContext(), () -> code));
+	}
+}
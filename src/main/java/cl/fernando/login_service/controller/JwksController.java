@@ -0,0 +1,43 @@
+package cl.fernando.login_service.controller;
+
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+
+import cl.fernando.login_service.util.JwtKeyRing;
+
+/**
+ * Publica las claves públicas de firma para que otros servicios verifiquen
+ * los tokens localmente. El max-age debe ser menor que el intervalo de
+ * rotación; la clave en espera ya viene incluida antes de empezar a firmar.
+ */
+@RestController
+public class JwksController {
+
+	private final JwtKeyRing keyRing;
+	private final CacheControl cacheControl;
+
+	public JwksController(JwtKeyRing keyRing,
+			@Value("${jwt.keys.jwks-max-age:5m}") Duration maxAge) {
+		this.keyRing = keyRing;
+		this.cacheControl = CacheControl.maxAge(maxAge).cachePublic();
+	}
+
+	@GetMapping(value = "/.well-known/jwks.json", produces = MediaType.APPLICATION_JSON_VALUE)
+	public ResponseEntity<String> jwks(WebRequest request) {
+		JwtKeyRing.JwkSet jwkSet = keyRing.getJwkSet();
+		if (request.checkNotModified(jwkSet.getEtag())) {
+			return null;
+		}
+		return ResponseEntity.ok()
+				.cacheControl(cacheControl)
+				.eTag(jwkSet.getEtag())
+				.body(jwkSet.getJson());
+	}
+}
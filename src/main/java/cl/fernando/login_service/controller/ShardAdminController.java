@@ -0,0 +1,49 @@
+package cl.fernando.login_service.controller;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import cl.fernando.login_service.dto.ShardRequest;
+import cl.fernando.login_service.dto.ShardStatusResponse;
+import cl.fernando.login_service.service.ShardManager;
+
+/**
+ * Administración de shards; solo existe con sharding.enabled y
+ * users.admin.enabled, y como /admin/users exige X-Admin-Token (AdminWebConfig).
+ * El rebalanceo corre en segundo plano: se responde 202 y el avance se
+ * consulta con GET.
+ */
+@RestController
+@RequestMapping("/admin/shards")
+@ConditionalOnProperty(name = { "sharding.enabled", "users.admin.enabled" }, havingValue = "true")
+public class ShardAdminController {
+
+	private final ShardManager shardManager;
+
+	public ShardAdminController(ShardManager shardManager) {
+		this.shardManager = shardManager;
+	}
+
+	@GetMapping
+	public ShardStatusResponse status() {
+		return shardManager.status();
+	}
+
+	@PostMapping
+	public ResponseEntity<ShardStatusResponse> addShard(@RequestBody ShardRequest request) {
+		shardManager.addShard(request);
+		return ResponseEntity.status(HttpStatus.ACCEPTED).body(shardManager.status());
+	}
+
+	@PostMapping("/rebalance")
+	public ResponseEntity<ShardStatusResponse> resumeRebalance() {
+		shardManager.resumeRebalance();
+		return ResponseEntity.status(HttpStatus.ACCEPTED).body(shardManager.status());
+	}
+}
@@ -0,0 +1,78 @@
+package cl.fernando.login_service.controller;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import cl.fernando.login_service.config.RequestExecutor;
+import cl.fernando.login_service.dto.ImportResponse;
+import cl.fernando.login_service.dto.UserRequest;
+import cl.fernando.login_service.dto.UserResponse;
+import cl.fernando.login_service.service.UserService;
+import cl.fernando.login_service.service.UserTransferService;
+
+/**
+ * Export e import masivo en NDJSON (application/x-ndjson). Ninguno de los dos
+ * arma la lista completa en memoria: el export se escribe mientras se lee el
+ * cursor y el import persiste a medida que llegan las líneas.
+ * by-phone busca los dueños de un número (soporte) y batch registra hasta
+ * users.batch.max-size usuarios en un request. Solo existe con
+ * users.admin.enabled y exige el token de AdminWebConfig.
+ */
+@RestController
+@RequestMapping("/admin/users")
+@ConditionalOnProperty(name = "users.admin.enabled", havingValue = "true")
+public class UserAdminController {
+
+	private static final String NDJSON = "application/x-ndjson";
+
+	private final UserTransferService transferService;
+	private final UserService userService;
+	private final RequestExecutor requestExecutor;
+
+	public UserAdminController(UserTransferService transferService, UserService userService,
+			RequestExecutor requestExecutor) {
+		this.transferService = transferService;
+		this.userService = userService;
+		this.requestExecutor = requestExecutor;
+	}
+
+	// BCrypt de todo el lote: corre en el executor de sign-up como los registros individuales
+	@PostMapping("/batch")
+	public CompletableFuture<ResponseEntity<List<UserResponse>>> signUpBatch(@RequestBody List<UserRequest> requests) {
+		return requestExecutor.signUp(
+				() -> ResponseEntity.status(HttpStatus.CREATED).body(userService.createUsers(requests)));
+	}
+
+	@GetMapping(value = "/export", produces = NDJSON)
+	public ResponseEntity<StreamingResponseBody> export() {
+		return ResponseEntity.ok()
+				.contentType(MediaType.parseMediaType(NDJSON))
+				.header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"users.ndjson\"")
+				.body(transferService::exportTo);
+	}
+
+	@PostMapping(value = "/import", consumes = NDJSON)
+	public ImportResponse importUsers(InputStream body) throws IOException {
+		return transferService.importFrom(body);
+	}
+
+	@GetMapping("/by-phone")
+	public List<UserResponse> findByPhone(@RequestParam("number") String number) {
+		return userService.findByPhone(number);
+	}
+}
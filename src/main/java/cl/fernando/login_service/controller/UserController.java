@@ -1,5 +1,9 @@
 package cl.fernando.login_service.controller;
 
+import java.util.concurrent.CompletableFuture;
+
+import javax.servlet.http.HttpServletRequest;
+
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PostMapping;
@@ -8,8 +12,14 @@ import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import cl.fernando.login_service.config.RequestExecutor;
+import cl.fernando.login_service.dto.LoginRequest;
+import cl.fernando.login_service.dto.RefreshRequest;
+import cl.fernando.login_service.dto.TokenResponse;
 import cl.fernando.login_service.dto.UserRequest;
 import cl.fernando.login_service.dto.UserResponse;
+import cl.fernando.login_service.service.RefreshTokenService;
+import cl.fernando.login_service.service.SignUpIdempotencyStore;
 import cl.fernando.login_service.service.UserServiceImpl;
 
 @RestController
@@ -17,18 +27,57 @@ import cl.fernando.login_service.service.UserServiceImpl;
 public class UserController {
 
 	private final UserServiceImpl userService;
-	public UserController(UserServiceImpl userService) {
+	private final RequestExecutor requestExecutor;
+	private final RefreshTokenService refreshTokenService;
+	private final SignUpIdempotencyStore idempotencyStore;
+	public UserController(UserServiceImpl userService, RequestExecutor requestExecutor,
+			RefreshTokenService refreshTokenService, SignUpIdempotencyStore idempotencyStore) {
 		this.userService = userService;
+		this.requestExecutor = requestExecutor;
+		this.refreshTokenService = refreshTokenService;
+		this.idempotencyStore = idempotencyStore;
 	}
 	
 	@PostMapping("/sign-up")
-	public ResponseEntity<?> signUp(@RequestBody UserRequest request) {
-		return ResponseEntity.status(HttpStatus.CREATED).body(userService.createUser(request));
+	public CompletableFuture<ResponseEntity<UserResponse>> signUp(@RequestBody UserRequest request,
+			@RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
+		if (idempotencyKey == null) {
+			return requestExecutor.signUp(
+					() -> ResponseEntity.status(HttpStatus.CREATED).body(userService.createUser(request)));
+		}
+		// Un reintento con la misma clave recibe la respuesta original sin repetir el trabajo
+		return idempotencyStore.execute(idempotencyKey, request,
+				() -> requestExecutor.signUp(() -> userService.createUser(request)))
+				.thenApply(response -> ResponseEntity.status(HttpStatus.CREATED).body(response));
 	}
 	
 	@PostMapping("/login")
-	public ResponseEntity<UserResponse> login(@RequestHeader("Authorization") String token) {
+	public CompletableFuture<ResponseEntity<UserResponse>> login(@RequestHeader("Authorization") String token) {
+		String jwt = token.replace("Bearer ", "");
+		return requestExecutor.login(() -> ResponseEntity.ok(userService.login(jwt)));
+	}
+	
+	@PostMapping("/login/password")
+	public CompletableFuture<ResponseEntity<UserResponse>> loginWithPassword(@RequestBody LoginRequest request,
+			HttpServletRequest httpRequest) {
+		String clientIp = httpRequest.getRemoteAddr();
+		return requestExecutor.login(() -> ResponseEntity.ok(
+				userService.loginWithPassword(request.getEmail(), request.getPassword(), clientIp)));
+	}
+	
+	@PostMapping("/token/refresh")
+	public ResponseEntity<TokenResponse> refresh(@RequestBody RefreshRequest request) {
+		return ResponseEntity.ok(refreshTokenService.rotate(request.getRefreshToken()));
+	}
+	
+	@PostMapping("/logout")
+	public ResponseEntity<Void> logout(@RequestHeader("Authorization") String token,
+			@RequestHeader(value = "X-Refresh-Token", required = false) String refreshHeader,
+			@RequestBody(required = false) RefreshRequest request) {
 		String jwt = token.replace("Bearer ", "");
-		return ResponseEntity.ok(userService.login(jwt));
+		String refreshToken = request != null && request.getRefreshToken() != null
+				? request.getRefreshToken() : refreshHeader;
+		userService.logout(jwt, refreshToken);
+		return ResponseEntity.noContent().build();
 	}
 }
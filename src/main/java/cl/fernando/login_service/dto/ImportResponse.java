@@ -0,0 +1,20 @@
+package cl.fernando.login_service.dto;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImportResponse {
+	private long imported;
+	private long skipped;
+	private long failed;
+	// Líneas del NDJSON que no se pudieron guardar (las primeras, acotadas)
+	private List<Long> failedLines;
+}
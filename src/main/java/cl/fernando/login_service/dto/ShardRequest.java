@@ -0,0 +1,15 @@
+package cl.fernando.login_service.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ShardRequest {
+	// Debe ser el siguiente shard inactivo de sharding.shards
+	private String name;
+}
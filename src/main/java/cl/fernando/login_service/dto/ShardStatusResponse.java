@@ -0,0 +1,18 @@
+package cl.fernando.login_service.dto;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ShardStatusResponse {
+	private List<String> shards;
+	private boolean rebalancing;
+	private long moved;
+}
@@ -0,0 +1,25 @@
+package cl.fernando.login_service.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+// Una línea del NDJSON de export/import; password es el hash tal como está guardado
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserExportRecord {
+	private String id;
+	private String name;
+	private String email;
+	private String password;
+	private LocalDateTime created;
+	private LocalDateTime lastLogin;
+	private boolean isActive;
+	private List<PhoneRequest> phones;
+}
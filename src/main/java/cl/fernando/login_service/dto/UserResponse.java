@@ -21,6 +21,7 @@ public class UserResponse {
 	private String token;
 	private boolean isActive;
 	private List<PhoneResponse> phones;
+	private String refreshToken;
 	
 	public UserResponse(String id, String name, String email, String token) {
 		super();
@@ -1,32 +1,70 @@
 package cl.fernando.login_service.entity;
 
+import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
 import javax.persistence.JoinColumn;
 import javax.persistence.ManyToOne;
+import javax.persistence.SequenceGenerator;
 
-import lombok.AllArgsConstructor;
-import lombok.Data;
+import cl.fernando.login_service.util.PhoneNumbers;
+import lombok.AccessLevel;
+import lombok.Getter;
 import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
 
 @Entity
-@Data
-@NoArgsConstructor
-@AllArgsConstructor
+@Getter
+@Setter
+@ToString(exclude = "user")
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
 public class Phone {
 	
+	// SEQUENCE en vez de IDENTITY para que Hibernate pueda agrupar los INSERT
 	@Id
-	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	@GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "phone_seq")
+	@SequenceGenerator(name = "phone_seq", sequenceName = "phone_seq", allocationSize = 50)
 	private Long id;
 	
 	private Long number;
 	private Integer citycode;
 	private String countrycode;
+
+	// Clave de búsqueda por teléfono (PhoneNumbers.toE164), índice (e164, user_id);
+	// se deriva siempre de las partes, nunca se asigna directo
+	@Column(length = 16)
+	@Setter(AccessLevel.NONE)
+	private String e164;
 	
 	@ManyToOne
 	@JoinColumn(name = "user_id")
 	private User user;
 
+	public Phone(Long id, Long number, Integer citycode, String countrycode, User user) {
+		this.id = id;
+		this.number = number;
+		this.citycode = citycode;
+		this.countrycode = countrycode;
+		this.e164 = PhoneNumbers.toE164(countrycode, citycode, number);
+		this.user = user;
+	}
+
+	public void setNumber(Long number) {
+		this.number = number;
+		this.e164 = PhoneNumbers.toE164(countrycode, citycode, number);
+	}
+
+	public void setCitycode(Integer citycode) {
+		this.citycode = citycode;
+		this.e164 = PhoneNumbers.toE164(countrycode, citycode, number);
+	}
+
+	public void setCountrycode(String countrycode) {
+		this.countrycode = countrycode;
+		this.e164 = PhoneNumbers.toE164(countrycode, citycode, number);
+	}
+
 }
@@ -0,0 +1,74 @@
+package cl.fernando.login_service.entity;
+
+import java.time.LocalDateTime;
+
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.PostLoad;
+import javax.persistence.PostPersist;
+import javax.persistence.Transient;
+
+import org.springframework.data.domain.Persistable;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+/**
+ * Refresh token rotativo. Solo se persiste el hash; todos los tokens que
+ * descienden de un mismo login comparten familyId para poder revocarlos
+ * juntos si se detecta reutilización. Lleva userId y email para emitir el
+ * nuevo access token sin cargar el User.
+ */
+@Entity
+@Getter
+@Setter
+@ToString(exclude = "tokenHash")
+@NoArgsConstructor
+public class RefreshToken implements Persistable<String> {
+
+	@Id
+	private String tokenHash;
+
+	private String familyId;
+	private String userId;
+	private String email;
+	private LocalDateTime created;
+	private LocalDateTime expiresAt;
+	private boolean used;
+	private boolean revoked;
+
+	// El id lo asigna la aplicación: sin esto save() haría un SELECT previo (merge)
+	@Transient
+	private boolean isNew = true;
+
+	public RefreshToken(String tokenHash, String familyId, String userId, String email,
+			LocalDateTime created, LocalDateTime expiresAt, boolean used, boolean revoked) {
+		this.tokenHash = tokenHash;
+		this.familyId = familyId;
+		this.userId = userId;
+		this.email = email;
+		this.created = created;
+		this.expiresAt = expiresAt;
+		this.used = used;
+		this.revoked = revoked;
+	}
+
+	@Override
+	public String getId() {
+		return tokenHash;
+	}
+
+	@Override
+	public boolean isNew() {
+		return isNew;
+	}
+
+	@PostLoad
+	@PostPersist
+	void markNotNew() {
+		this.isNew = false;
+	}
+
+}
@@ -8,18 +8,31 @@ import javax.persistence.CascadeType;
 import javax.persistence.Entity;
 import javax.persistence.Id;
 import javax.persistence.OneToMany;
+import javax.persistence.Table;
+import javax.persistence.UniqueConstraint;
 
 import lombok.AllArgsConstructor;
-import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
 import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
 
 @Entity
-@Data
+@Table(uniqueConstraints = @UniqueConstraint(name = User.EMAIL_CONSTRAINT, columnNames = "email"))
+@Getter
+@Setter
+@EqualsAndHashCode(onlyExplicitlyIncluded = true)
+@ToString(exclude = "phones")
 @NoArgsConstructor
 @AllArgsConstructor
 public class User {
+
+	/** Restricción única del email (V1__init.sql). */
+	public static final String EMAIL_CONSTRAINT = "uk_user_email";
 	
 	@Id
+	@EqualsAndHashCode.Include
 	private String id = UUID.randomUUID().toString();
 	
 	private String name;
@@ -29,7 +42,6 @@ public class User {
 	private LocalDateTime created = LocalDateTime.now();
 	private LocalDateTime lastLogin = LocalDateTime.now();
 	
-	private String token;
 	private boolean isActive = true;
 	
 	@OneToMany(mappedBy = "user", cascade = CascadeType.ALL, orphanRemoval = true)
@@ -0,0 +1,31 @@
+package cl.fernando.login_service.exception;
+
+import org.springframework.http.HttpStatus;
+
+/**
+ * Base de los errores esperados (entrada inválida, credenciales, conflictos,
+ * sobrecarga). No captura stack trace: bajo una ráfaga de requests rechazados
+ * el costo de lanzarla es el de un objeto más. Los errores inesperados siguen
+ * siendo RuntimeException comunes y se responden con 500.
+ */
+public abstract class ApiException extends RuntimeException {
+
+	private static final long serialVersionUID = 1L;
+
+	private final HttpStatus status;
+
+	protected ApiException(HttpStatus status, String message) {
+		super(message, null, false, false);
+		this.status = status;
+	}
+
+	public HttpStatus getStatus() {
+		return status;
+	}
+
+	/** Segundos para el header Retry-After; 0 si no corresponde. */
+	public long getRetryAfterSeconds() {
+		return 0;
+	}
+
+}
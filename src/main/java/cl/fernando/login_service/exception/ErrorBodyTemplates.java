@@ -0,0 +1,87 @@
+package cl.fernando.login_service.exception;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Cuerpos de error ya serializados con la forma de ErrorResponse:
+ * {"error":[{"timestamp":"...","codigo":N,"detail":"..."}]}.
+ * Por mensaje se guarda una sola vez la parte fija en UTF-8; cada respuesta
+ * solo copia el timestamp entre el prefijo y ese sufijo, sin pasar por Jackson.
+ * La caché está acotada porque algunos mensajes incluyen datos del request.
+ */
+public final class ErrorBodyTemplates {
+
+	private static final int MAX_TEMPLATES = 256;
+	private static final byte[] PREFIX = "{\"error\":[{\"timestamp\":\"".getBytes(StandardCharsets.US_ASCII);
+
+	private final ConcurrentHashMap<String, Template> templates = new ConcurrentHashMap<>();
+
+	public byte[] render(int status, String message) {
+		return render(status, message, Instant.now().toString());
+	}
+
+	public byte[] render(int status, String message, String timestamp) {
+		String detail = message != null ? message : "";
+		Template template = templates.get(detail);
+		if (template == null || template.status != status) {
+			template = new Template(status, detail);
+			if (templates.size() < MAX_TEMPLATES) {
+				templates.put(detail, template);
+			}
+		}
+		byte[] suffix = template.suffix;
+		byte[] body = new byte[PREFIX.length + timestamp.length() + suffix.length];
+		System.arraycopy(PREFIX, 0, body, 0, PREFIX.length);
+		int offset = PREFIX.length;
+		// El timestamp ISO-8601 es ASCII
+		for (int i = 0; i < timestamp.length(); i++) {
+			body[offset++] = (byte) timestamp.charAt(i);
+		}
+		System.arraycopy(suffix, 0, body, offset, suffix.length);
+		return body;
+	}
+
+	private static final class Template {
+		private final int status;
+		private final byte[] suffix;
+
+		Template(int status, String detail) {
+			this.status = status;
+			StringBuilder json = new StringBuilder(detail.length() + 32)
+					.append("\",\"codigo\":").append(status).append(",\"detail\":\"");
+			appendEscaped(json, detail);
+			this.suffix = json.append("\"}]}").toString().getBytes(StandardCharsets.UTF_8);
+		}
+	}
+
+	private static void appendEscaped(StringBuilder json, String value) {
+		for (int i = 0; i < value.length(); i++) {
+			char c = value.charAt(i);
+			switch (c) {
+			case '"':
+				json.append("\\\"");
+				break;
+			case '\\':
+				json.append("\\\\");
+				break;
+			case '\n':
+				json.append("\\n");
+				break;
+			case '\r':
+				json.append("\\r");
+				break;
+			case '\t':
+				json.append("\\t");
+				break;
+			default:
+				if (c < 0x20) {
+					json.append(String.format("\\u%04X", (int) c));
+				} else {
+					json.append(c);
+				}
+			}
+		}
+	}
+}
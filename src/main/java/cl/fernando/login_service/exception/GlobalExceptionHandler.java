@@ -1,29 +1,117 @@
 package cl.fernando.login_service.exception;
 
-import java.time.Instant;
-import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
+import org.springframework.beans.TypeMismatchException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.web.bind.MissingRequestHeaderException;
+import org.springframework.web.bind.MissingServletRequestParameterException;
+import org.springframework.web.bind.ServletRequestBindingException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.method.annotation.MethodArgumentTypeMismatchException;
+import org.springframework.web.server.ResponseStatusException;
 
-import cl.fernando.login_service.dto.ErrorDetail;
-import cl.fernando.login_service.dto.ErrorResponse;
-
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
 
+/**
+ * ApiException → su status (sin stack trace ni log); cuerpo ilegible, header o
+ * parámetro faltante o mal formado → 400; ResponseStatusException → su status;
+ * cualquier otra RuntimeException es un error nuestro → 500 con log completo.
+ * Los cuerpos salen de ErrorBodyTemplates con la forma de ErrorResponse.
+ */
+@Slf4j
 @ControllerAdvice
 public class GlobalExceptionHandler {
 
+	private final MeterRegistry meterRegistry;
+	private final Map<String, Counter> errorCounters = new ConcurrentHashMap<>();
+	private final ErrorBodyTemplates templates = new ErrorBodyTemplates();
+
+	public GlobalExceptionHandler(MeterRegistry meterRegistry) {
+		this.meterRegistry = meterRegistry;
+	}
+
+	@ExceptionHandler(ApiException.class)
+	public ResponseEntity<byte[]> handleApi(ApiException ex) {
+		countError(ex, ex.getStatus());
+		ResponseEntity.BodyBuilder response = ResponseEntity.status(ex.getStatus())
+				.contentType(MediaType.APPLICATION_JSON);
+		if (ex.getRetryAfterSeconds() > 0) {
+			response.header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()));
+		}
+		return response.body(templates.render(ex.getStatus().value(), ex.getMessage()));
+	}
+
+	@ExceptionHandler(HttpMessageNotReadableException.class)
+	public ResponseEntity<byte[]> handleNotReadable(HttpMessageNotReadableException ex) {
+		countError(ex, HttpStatus.BAD_REQUEST);
+		return error(HttpStatus.BAD_REQUEST, "Cuerpo de la solicitud inválido");
+	}
+
+	@ExceptionHandler(ServletRequestBindingException.class)
+	public ResponseEntity<byte[]> handleBinding(ServletRequestBindingException ex) {
+		countError(ex, HttpStatus.BAD_REQUEST);
+		if (ex instanceof MissingRequestHeaderException) {
+			return error(HttpStatus.BAD_REQUEST,
+					"Falta el header " + ((MissingRequestHeaderException) ex).getHeaderName());
+		}
+		if (ex instanceof MissingServletRequestParameterException) {
+			return error(HttpStatus.BAD_REQUEST,
+					"Falta el parámetro " + ((MissingServletRequestParameterException) ex).getParameterName());
+		}
+		return error(HttpStatus.BAD_REQUEST, "Solicitud inválida");
+	}
+
+	@ExceptionHandler(TypeMismatchException.class)
+	public ResponseEntity<byte[]> handleTypeMismatch(TypeMismatchException ex) {
+		countError(ex, HttpStatus.BAD_REQUEST);
+		String name = ex instanceof MethodArgumentTypeMismatchException
+				? ((MethodArgumentTypeMismatchException) ex).getName() : ex.getPropertyName();
+		return error(HttpStatus.BAD_REQUEST, name != null ? "Parámetro inválido: " + name : "Parámetro inválido");
+	}
+
+	@ExceptionHandler(ResponseStatusException.class)
+	public ResponseEntity<byte[]> handleResponseStatus(ResponseStatusException ex) {
+		countError(ex, ex.getStatus());
+		if (ex.getStatus().is5xxServerError()) {
+			log.error("Error no controlado", ex);
+		}
+		String message = ex.getReason() != null ? ex.getReason() : ex.getStatus().getReasonPhrase();
+		return ResponseEntity.status(ex.getStatus())
+				.headers(ex.getResponseHeaders())
+				.contentType(MediaType.APPLICATION_JSON)
+				.body(templates.render(ex.getStatus().value(), message));
+	}
+
 	@ExceptionHandler(RuntimeException.class)
-	public ResponseEntity<ErrorResponse> handleRuntime(RuntimeException ex) {
-		ErrorResponse error = new ErrorResponse(Collections.singletonList(
-				new ErrorDetail(Instant.now().toString(),
-						HttpStatus.BAD_REQUEST.value(),
-						ex.getMessage()
-				)
-		));
-		return new ResponseEntity<>(error, HttpStatus.BAD_REQUEST);
-	}
-	
+	public ResponseEntity<byte[]> handleRuntime(RuntimeException ex) {
+		countError(ex, HttpStatus.INTERNAL_SERVER_ERROR);
+		log.error("Error no controlado", ex);
+		return error(HttpStatus.INTERNAL_SERVER_ERROR, "Error interno");
+	}
+
+	private ResponseEntity<byte[]> error(HttpStatus status, String message) {
+		return ResponseEntity.status(status)
+				.contentType(MediaType.APPLICATION_JSON)
+				.body(templates.render(status.value(), message));
+	}
+
+	// Un contador por tipo de error y status (ResponseStatusException varía), creado una sola vez
+	private void countError(Exception ex, HttpStatus status) {
+		String key = ex.getClass().getName() + ' ' + status.value();
+		errorCounters.computeIfAbsent(key, k -> Counter.builder("users.errors")
+				.tag("outcome", ex.getClass().getSimpleName())
+				.tag("status", String.valueOf(status.value()))
+				.register(meterRegistry))
+				.increment();
+	}
+
 }
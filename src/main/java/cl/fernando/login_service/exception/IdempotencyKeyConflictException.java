@@ -0,0 +1,13 @@
+package cl.fernando.login_service.exception;
+
+import org.springframework.http.HttpStatus;
+
+public class IdempotencyKeyConflictException extends ApiException {
+
+	private static final long serialVersionUID = 1L;
+
+	public IdempotencyKeyConflictException() {
+		super(HttpStatus.UNPROCESSABLE_ENTITY, "Idempotency-Key ya usada con otra solicitud");
+	}
+
+}
@@ -0,0 +1,13 @@
+package cl.fernando.login_service.exception;
+
+import org.springframework.http.HttpStatus;
+
+public class InvalidCredentialsException extends ApiException {
+
+	private static final long serialVersionUID = 1L;
+
+	public InvalidCredentialsException(String message) {
+		super(HttpStatus.UNAUTHORIZED, message);
+	}
+
+}
@@ -0,0 +1,11 @@
+package cl.fernando.login_service.exception;
+
+public class InvalidEmailException extends ValidationException {
+
+	private static final long serialVersionUID = 1L;
+
+	public InvalidEmailException() {
+		super("Formato de email inválido");
+	}
+
+}
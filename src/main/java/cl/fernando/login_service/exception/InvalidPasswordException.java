@@ -0,0 +1,11 @@
+package cl.fernando.login_service.exception;
+
+public class InvalidPasswordException extends ValidationException {
+
+	private static final long serialVersionUID = 1L;
+
+	public InvalidPasswordException() {
+		super("Formato de password inválido");
+	}
+
+}
@@ -0,0 +1,13 @@
+package cl.fernando.login_service.exception;
+
+import org.springframework.http.HttpStatus;
+
+public class InvalidRefreshTokenException extends ApiException {
+
+	private static final long serialVersionUID = 1L;
+
+	public InvalidRefreshTokenException(String message) {
+		super(HttpStatus.UNAUTHORIZED, message);
+	}
+
+}
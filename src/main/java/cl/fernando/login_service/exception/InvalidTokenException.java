@@ -0,0 +1,13 @@
+package cl.fernando.login_service.exception;
+
+import org.springframework.http.HttpStatus;
+
+public class InvalidTokenException extends ApiException {
+
+	private static final long serialVersionUID = 1L;
+
+	public InvalidTokenException() {
+		super(HttpStatus.UNAUTHORIZED, "Token inválido o expirado");
+	}
+
+}
@@ -0,0 +1,13 @@
+package cl.fernando.login_service.exception;
+
+import org.springframework.http.HttpStatus;
+
+public class NotFoundException extends ApiException {
+
+	private static final long serialVersionUID = 1L;
+
+	public NotFoundException(String message) {
+		super(HttpStatus.NOT_FOUND, message);
+	}
+
+}
@@ -0,0 +1,18 @@
+package cl.fernando.login_service.exception;
+
+import org.springframework.http.HttpStatus;
+
+public class ServiceBusyException extends ApiException {
+
+	private static final long serialVersionUID = 1L;
+
+	public ServiceBusyException(String message) {
+		super(HttpStatus.SERVICE_UNAVAILABLE, message);
+	}
+
+	@Override
+	public long getRetryAfterSeconds() {
+		return 1;
+	}
+
+}
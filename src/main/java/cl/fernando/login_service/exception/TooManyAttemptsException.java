@@ -0,0 +1,24 @@
+package cl.fernando.login_service.exception;
+
+import org.springframework.http.HttpStatus;
+
+import lombok.Getter;
+
+@Getter
+public class TooManyAttemptsException extends ApiException {
+
+	private static final long serialVersionUID = 1L;
+
+	private final long retryAfterMillis;
+
+	public TooManyAttemptsException(String message, long retryAfterMillis) {
+		super(HttpStatus.TOO_MANY_REQUESTS, message);
+		this.retryAfterMillis = retryAfterMillis;
+	}
+
+	@Override
+	public long getRetryAfterSeconds() {
+		return Math.max(1, (retryAfterMillis + 999) / 1000);
+	}
+
+}
@@ -0,0 +1,17 @@
+package cl.fernando.login_service.exception;
+
+import org.springframework.http.HttpStatus;
+
+public class UserAlreadyExistsException extends ApiException {
+
+	private static final long serialVersionUID = 1L;
+
+	public UserAlreadyExistsException() {
+		super(HttpStatus.CONFLICT, "Usuario ya existe");
+	}
+
+	public UserAlreadyExistsException(String email) {
+		super(HttpStatus.CONFLICT, "Usuario ya existe: " + email);
+	}
+
+}
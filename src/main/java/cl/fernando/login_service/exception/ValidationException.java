@@ -0,0 +1,13 @@
+package cl.fernando.login_service.exception;
+
+import org.springframework.http.HttpStatus;
+
+public class ValidationException extends ApiException {
+
+	private static final long serialVersionUID = 1L;
+
+	public ValidationException(String message) {
+		super(HttpStatus.UNPROCESSABLE_ENTITY, message);
+	}
+
+}
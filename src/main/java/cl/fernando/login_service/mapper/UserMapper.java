@@ -0,0 +1,48 @@
+package cl.fernando.login_service.mapper;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.stereotype.Component;
+
+import cl.fernando.login_service.dto.PhoneResponse;
+import cl.fernando.login_service.dto.UserResponse;
+import cl.fernando.login_service.entity.Phone;
+import cl.fernando.login_service.entity.User;
+
+/**
+ * Mapeo explícito entidad → DTO. Reemplaza a ModelMapper en el camino de
+ * respuesta: sin reflexión ni resolución de convenciones por llamada.
+ */
+@Component
+public class UserMapper {
+
+	public UserResponse toResponse(User user, String token) {
+		UserResponse response = new UserResponse();
+		response.setId(user.getId());
+		response.setName(user.getName());
+		response.setEmail(user.getEmail());
+		response.setCreated(user.getCreated());
+		response.setLastLogin(user.getLastLogin());
+		response.setToken(token);
+		response.setActive(user.isActive());
+		response.setPhones(toPhoneResponses(user.getPhones()));
+		return response;
+	}
+
+	public List<PhoneResponse> toPhoneResponses(List<Phone> phones) {
+		if (phones == null) {
+			return null;
+		}
+		List<PhoneResponse> responses = new ArrayList<>(phones.size());
+		for (Phone phone : phones) {
+			responses.add(toResponse(phone));
+		}
+		return responses;
+	}
+
+	public PhoneResponse toResponse(Phone phone) {
+		return new PhoneResponse(phone.getNumber(), phone.getCitycode(), phone.getCountrycode());
+	}
+
+}
@@ -0,0 +1,37 @@
+package cl.fernando.login_service.mapper;
+
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.databind.BeanDescription;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializationConfig;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.ser.BeanSerializerModifier;
+
+import cl.fernando.login_service.dto.UserResponse;
+
+/**
+ * Registra UserResponseSerializer en el ObjectMapper de Spring Boot (toma
+ * todos los Module del contexto). Se engancha como modificador para quedarse
+ * con el serializer estándar como respaldo.
+ */
+@Component
+public class UserResponseJsonModule extends SimpleModule {
+
+	private static final long serialVersionUID = 1L;
+
+	public UserResponseJsonModule() {
+		super("UserResponseJsonModule");
+		setSerializerModifier(new BeanSerializerModifier() {
+			@Override
+			@SuppressWarnings("unchecked")
+			public JsonSerializer<?> modifySerializer(SerializationConfig config, BeanDescription description,
+					JsonSerializer<?> serializer) {
+				if (description.getBeanClass() == UserResponse.class) {
+					return new UserResponseSerializer((JsonSerializer<Object>) serializer);
+				}
+				return serializer;
+			}
+		});
+	}
+}
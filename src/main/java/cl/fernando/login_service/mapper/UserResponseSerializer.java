@@ -0,0 +1,221 @@
+package cl.fernando.login_service.mapper;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.BeanProperty;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.ContextualSerializer;
+import com.fasterxml.jackson.databind.ser.ResolvableSerializer;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import cl.fernando.login_service.dto.PhoneResponse;
+import cl.fernando.login_service.dto.UserResponse;
+
+/**
+ * Serializa UserResponse y sus PhoneResponse escribiendo directo sobre el
+ * JsonGenerator (que ya escribe al stream de la respuesta): nombres de campo
+ * pre-codificados y fechas formateadas a mano en un char[], sin pasar por
+ * DateTimeFormatter ni por el BeanSerializer reflexivo.
+ *
+ * La salida es idéntica byte a byte a la de Jackson con la configuración por
+ * defecto de Spring Boot, incluido el orden de propiedades (active al final).
+ * Si se configura otra inclusión de nulos o fechas como timestamp se delega
+ * en el serializer estándar.
+ */
+public class UserResponseSerializer extends StdSerializer<UserResponse>
+		implements ResolvableSerializer, ContextualSerializer {
+
+	private static final long serialVersionUID = 1L;
+
+	private static final SerializedString ID = new SerializedString("id");
+	private static final SerializedString NAME = new SerializedString("name");
+	private static final SerializedString EMAIL = new SerializedString("email");
+	private static final SerializedString CREATED = new SerializedString("created");
+	private static final SerializedString LAST_LOGIN = new SerializedString("lastLogin");
+	private static final SerializedString TOKEN = new SerializedString("token");
+	private static final SerializedString PHONES = new SerializedString("phones");
+	private static final SerializedString REFRESH_TOKEN = new SerializedString("refreshToken");
+	private static final SerializedString ACTIVE = new SerializedString("active");
+	private static final SerializedString NUMBER = new SerializedString("number");
+	private static final SerializedString CITYCODE = new SerializedString("citycode");
+	private static final SerializedString COUNTRYCODE = new SerializedString("countrycode");
+
+	// Largo máximo de yyyy-MM-ddTHH:mm:ss.SSSSSSSSS
+	private static final int MAX_ISO_LENGTH = 29;
+
+	private final transient JsonSerializer<Object> standard;
+
+	public UserResponseSerializer(JsonSerializer<Object> standard) {
+		super(UserResponse.class);
+		this.standard = standard;
+	}
+
+	// El serializer estándar solo queda completo (p. ej. cómo escribir nulos) tras resolve/createContextual
+	@Override
+	public void resolve(SerializerProvider provider) throws JsonMappingException {
+		if (standard instanceof ResolvableSerializer) {
+			((ResolvableSerializer) standard).resolve(provider);
+		}
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public JsonSerializer<?> createContextual(SerializerProvider provider, BeanProperty property)
+			throws JsonMappingException {
+		if (standard instanceof ContextualSerializer) {
+			JsonSerializer<?> contextual = ((ContextualSerializer) standard).createContextual(provider, property);
+			if (contextual != standard) {
+				return new UserResponseSerializer((JsonSerializer<Object>) contextual);
+			}
+		}
+		return this;
+	}
+
+	@Override
+	public void serialize(UserResponse value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+		if (!isDefaultConfig(provider)) {
+			standard.serialize(value, gen, provider);
+			return;
+		}
+		gen.writeStartObject(value);
+		gen.writeFieldName(ID);
+		writeString(gen, value.getId());
+		gen.writeFieldName(NAME);
+		writeString(gen, value.getName());
+		gen.writeFieldName(EMAIL);
+		writeString(gen, value.getEmail());
+		gen.writeFieldName(CREATED);
+		writeDateTime(gen, value.getCreated());
+		gen.writeFieldName(LAST_LOGIN);
+		writeDateTime(gen, value.getLastLogin());
+		gen.writeFieldName(TOKEN);
+		writeString(gen, value.getToken());
+		gen.writeFieldName(PHONES);
+		writePhones(gen, value.getPhones());
+		gen.writeFieldName(REFRESH_TOKEN);
+		writeString(gen, value.getRefreshToken());
+		gen.writeFieldName(ACTIVE);
+		gen.writeBoolean(value.isActive());
+		gen.writeEndObject();
+	}
+
+	private static boolean isDefaultConfig(SerializerProvider provider) {
+		if (provider.isEnabled(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)) {
+			return false;
+		}
+		JsonInclude.Include inclusion = provider.getConfig()
+				.getDefaultPropertyInclusion(UserResponse.class).getValueInclusion();
+		return inclusion == JsonInclude.Include.ALWAYS || inclusion == JsonInclude.Include.USE_DEFAULTS;
+	}
+
+	private static void writePhones(JsonGenerator gen, List<PhoneResponse> phones) throws IOException {
+		if (phones == null) {
+			gen.writeNull();
+			return;
+		}
+		gen.writeStartArray(phones, phones.size());
+		for (PhoneResponse phone : phones) {
+			if (phone == null) {
+				gen.writeNull();
+				continue;
+			}
+			gen.writeStartObject(phone);
+			gen.writeFieldName(NUMBER);
+			if (phone.getNumber() == null) {
+				gen.writeNull();
+			} else {
+				gen.writeNumber(phone.getNumber());
+			}
+			gen.writeFieldName(CITYCODE);
+			if (phone.getCitycode() == null) {
+				gen.writeNull();
+			} else {
+				gen.writeNumber(phone.getCitycode());
+			}
+			gen.writeFieldName(COUNTRYCODE);
+			writeString(gen, phone.getCountrycode());
+			gen.writeEndObject();
+		}
+		gen.writeEndArray();
+	}
+
+	private static void writeString(JsonGenerator gen, String value) throws IOException {
+		if (value == null) {
+			gen.writeNull();
+		} else {
+			gen.writeString(value);
+		}
+	}
+
+	private static void writeDateTime(JsonGenerator gen, LocalDateTime value) throws IOException {
+		if (value == null) {
+			gen.writeNull();
+			return;
+		}
+		char[] buffer = new char[MAX_ISO_LENGTH];
+		int length = formatIso(value, buffer);
+		if (length < 0) {
+			gen.writeString(DateTimeFormatter.ISO_LOCAL_DATE_TIME.format(value));
+		} else {
+			gen.writeString(buffer, 0, length);
+		}
+	}
+
+	/**
+	 * Mismo formato que DateTimeFormatter.ISO_LOCAL_DATE_TIME: segundos siempre,
+	 * fracción solo si hay nanos y sin ceros a la derecha. Devuelve -1 para años
+	 * fuera de 0..9999, que ISO escribe con signo.
+	 */
+	public static int formatIso(LocalDateTime value, char[] buffer) {
+		int year = value.getYear();
+		if (year < 0 || year > 9999) {
+			return -1;
+		}
+		buffer[0] = digit(year / 1000);
+		buffer[1] = digit(year / 100 % 10);
+		buffer[2] = digit(year / 10 % 10);
+		buffer[3] = digit(year % 10);
+		buffer[4] = '-';
+		twoDigits(buffer, 5, value.getMonthValue());
+		buffer[7] = '-';
+		twoDigits(buffer, 8, value.getDayOfMonth());
+		buffer[10] = 'T';
+		twoDigits(buffer, 11, value.getHour());
+		buffer[13] = ':';
+		twoDigits(buffer, 14, value.getMinute());
+		buffer[16] = ':';
+		twoDigits(buffer, 17, value.getSecond());
+		int nano = value.getNano();
+		if (nano == 0) {
+			return 19;
+		}
+		buffer[19] = '.';
+		int length = 29;
+		for (int i = 28; i >= 20; i--) {
+			buffer[i] = digit(nano % 10);
+			nano /= 10;
+		}
+		while (buffer[length - 1] == '0') {
+			length--;
+		}
+		return length;
+	}
+
+	private static void twoDigits(char[] buffer, int offset, int value) {
+		buffer[offset] = digit(value / 10);
+		buffer[offset + 1] = digit(value % 10);
+	}
+
+	private static char digit(int value) {
+		return (char) ('0' + value);
+	}
+}
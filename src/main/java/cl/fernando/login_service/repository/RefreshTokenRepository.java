@@ -0,0 +1,28 @@
+package cl.fernando.login_service.repository;
+
+import java.time.LocalDateTime;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import cl.fernando.login_service.entity.RefreshToken;
+
+public interface RefreshTokenRepository extends JpaRepository<RefreshToken, String> {
+
+	// Update condicional: de dos rotaciones concurrentes del mismo token solo una obtiene 1
+	@Modifying
+	@Query("update RefreshToken t set t.used = true where t.tokenHash = :hash"
+			+ " and t.used = false and t.revoked = false and t.expiresAt > :now")
+	int markUsed(@Param("hash") String hash, @Param("now") LocalDateTime now);
+
+	@Modifying
+	@Query("update RefreshToken t set t.revoked = true where t.familyId = :familyId and t.revoked = false")
+	int revokeFamily(@Param("familyId") String familyId);
+
+	@Modifying
+	@Query("delete from RefreshToken t where t.expiresAt < :now")
+	int deleteExpired(@Param("now") LocalDateTime now);
+
+}
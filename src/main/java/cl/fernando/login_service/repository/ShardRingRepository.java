@@ -0,0 +1,101 @@
+package cl.fernando.login_service.repository;
+
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.Optional;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Anillo de shards persistido en el primario (tablas shard_ring, shard_state y
+ * shard_node). Usa directamente el DataSource del primario, no el de ruteo,
+ * para no depender del ShardContext del hilo.
+ */
+public class ShardRingRepository {
+
+	private final JdbcTemplate jdbcTemplate;
+	private final TransactionTemplate transactionTemplate;
+
+	public ShardRingRepository(DataSource primary) {
+		this.jdbcTemplate = new JdbcTemplate(primary);
+		this.transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(primary));
+	}
+
+	/** Anillo persistido, o vacío si nunca se agregó un shard (vale la configuración). */
+	public Optional<RingState> load() {
+		return transactionTemplate.execute(status -> {
+			List<String> shards = jdbcTemplate.queryForList("select name from shard_ring order by position", String.class);
+			return jdbcTemplate.query("select version, rebalancing from shard_state where id = 1",
+					(rs, row) -> new RingState(rs.getLong(1), rs.getBoolean(2), shards)).stream().findFirst();
+		});
+	}
+
+	/**
+	 * Agrega el shard al final del anillo y marca el rebalanceo; devuelve la
+	 * versión nueva. Si otro nodo cambió el anillo entretanto, la clave
+	 * primaria de shard_ring o de shard_state lo rechaza (DataIntegrityViolationException).
+	 */
+	public long beginRebalance(List<String> shards, String newShard) {
+		return transactionTemplate.execute(status -> {
+			Integer stored = jdbcTemplate.queryForObject("select count(*) from shard_ring", Integer.class);
+			if (stored == 0) {
+				for (int i = 0; i < shards.size(); i++) {
+					jdbcTemplate.update("insert into shard_ring (position, name) values (?, ?)", i, shards.get(i));
+				}
+			}
+			jdbcTemplate.update("insert into shard_ring (position, name) values (?, ?)", shards.size(), newShard);
+			if (jdbcTemplate.update("update shard_state set version = version + 1, rebalancing = true"
+					+ " where id = 1 and rebalancing = false") == 0) {
+				jdbcTemplate.update("insert into shard_state (id, version, rebalancing) values (1, 1, true)");
+			}
+			return jdbcTemplate.queryForObject("select version from shard_state where id = 1", Long.class);
+		});
+	}
+
+	/** Cierra el rebalanceo; devuelve la versión nueva. */
+	public long finishRebalance() {
+		return transactionTemplate.execute(status -> {
+			jdbcTemplate.update("update shard_state set version = version + 1, rebalancing = false where id = 1");
+			return jdbcTemplate.queryForObject("select version from shard_state where id = 1", Long.class);
+		});
+	}
+
+	/**
+	 * Registra que el nodo usa esa versión del anillo y sigue vivo; de paso
+	 * borra los nodos que no reportan hace más de timeoutMs.
+	 */
+	public void report(String nodeId, long version, long timeoutMs) {
+		Timestamp now = new Timestamp(System.currentTimeMillis());
+		jdbcTemplate.update("delete from shard_node where seen_at < ?", new Timestamp(now.getTime() - timeoutMs));
+		if (jdbcTemplate.update("update shard_node set ring_version = ?, seen_at = ? where node_id = ?",
+				version, now, nodeId) == 0) {
+			jdbcTemplate.update("insert into shard_node (node_id, ring_version, seen_at) values (?, ?, ?)",
+					nodeId, version, now);
+		}
+	}
+
+	/** Nodos vistos en los últimos timeoutMs que todavía no adoptan la versión. */
+	public int countNodesBehind(long version, long timeoutMs) {
+		return jdbcTemplate.queryForObject("select count(*) from shard_node where ring_version < ? and seen_at >= ?",
+				Integer.class, version, new Timestamp(System.currentTimeMillis() - timeoutMs));
+	}
+
+	public void removeNode(String nodeId) {
+		jdbcTemplate.update("delete from shard_node where node_id = ?", nodeId);
+	}
+
+	@Getter
+	@AllArgsConstructor
+	public static class RingState {
+		private final long version;
+		private final boolean rebalancing;
+		private final List<String> shards;
+	}
+}
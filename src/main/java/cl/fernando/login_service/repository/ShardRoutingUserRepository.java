@@ -0,0 +1,201 @@
+package cl.fernando.login_service.repository;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.lang.reflect.UndeclaredThrowableException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.BaseStream;
+
+import org.springframework.data.domain.Pageable;
+
+import cl.fernando.login_service.entity.User;
+import cl.fernando.login_service.util.ShardContext;
+import cl.fernando.login_service.util.ShardRouter;
+
+/**
+ * Envuelve UserRepository para que cada llamada vaya al shard que corresponde:
+ * - *ByEmail(email) y save(user): al dueño del email; durante un rebalanceo,
+ *   si ahí no está, al dueño anterior.
+ * - insertAll, saveAll y findExistingEmails: agrupadas por dueño.
+ * - findEmailsAfter: a todos, mezclando las páginas por orden de email.
+ * - El resto (por id, count, updates): a todos, combinando los resultados.
+ * Si el hilo ya tiene un shard fijado (rebalanceo) la llamada pasa directo.
+ */
+public final class ShardRoutingUserRepository implements InvocationHandler {
+
+	private final UserRepository target;
+	private final ShardRouter router;
+
+	private ShardRoutingUserRepository(UserRepository target, ShardRouter router) {
+		this.target = target;
+		this.router = router;
+	}
+
+	public static UserRepository wrap(UserRepository target, ShardRouter router) {
+		return (UserRepository) Proxy.newProxyInstance(UserRepository.class.getClassLoader(),
+				new Class<?>[] { UserRepository.class }, new ShardRoutingUserRepository(target, router));
+	}
+
+	@Override
+	public Object invoke(Object proxy, Method method, Object[] args) {
+		if (method.getDeclaringClass() == Object.class || ShardContext.current() != null) {
+			return call(method, args);
+		}
+		Object first = args != null && args.length > 0 ? args[0] : null;
+		String name = method.getName();
+		if (first instanceof User) {
+			return routed(((User) first).getEmail(), method, args);
+		}
+		if (first instanceof String && name.endsWith("ByEmail")) {
+			return routed((String) first, method, args);
+		}
+		if ("findExistingEmails".equals(name)) {
+			return existingEmails(method, args);
+		}
+		if ("insertAll".equals(name) || "saveAll".equals(name)) {
+			return byUserOwner(method, args);
+		}
+		if ("findEmailsAfter".equals(name)) {
+			return emailsAfter(method, args);
+		}
+		return broadcast(method, args);
+	}
+
+	// save() de un usuario que sigue en el shard anterior lo duplicaría; solo se usa para altas
+	private Object routed(String email, Method method, Object[] args) {
+		String owner = router.shardFor(email);
+		Object result = callOn(owner, method, args);
+		String previous = router.previousShardFor(email);
+		if (isMiss(result) && previous != null && !previous.equals(owner)) {
+			result = callOn(previous, method, args);
+		}
+		return result;
+	}
+
+	@SuppressWarnings("unchecked")
+	private Object existingEmails(Method method, Object[] args) {
+		Map<String, List<String>> byShard = new LinkedHashMap<>();
+		for (String email : (Collection<String>) args[0]) {
+			byShard.computeIfAbsent(router.shardFor(email), s -> new ArrayList<>()).add(email);
+			String previous = router.previousShardFor(email);
+			if (previous != null) {
+				byShard.computeIfAbsent(previous, s -> new ArrayList<>()).add(email);
+			}
+		}
+		Set<String> existing = new LinkedHashSet<>();
+		byShard.forEach((shard, emails) -> existing.addAll(
+				(List<String>) callOn(shard, method, new Object[] { emails })));
+		return new ArrayList<>(existing);
+	}
+
+	private Object byUserOwner(Method method, Object[] args) {
+		Map<String, List<User>> byShard = new LinkedHashMap<>();
+		for (Object user : (Iterable<?>) args[0]) {
+			byShard.computeIfAbsent(router.shardFor(((User) user).getEmail()), s -> new ArrayList<>())
+					.add((User) user);
+		}
+		List<Object> results = new ArrayList<>();
+		byShard.forEach((shard, users) -> {
+			Object result = callOn(shard, method, new Object[] { users });
+			if (result instanceof Collection) {
+				results.addAll((Collection<?>) result);
+			}
+		});
+		return method.getReturnType() == void.class ? null : results;
+	}
+
+	@SuppressWarnings("unchecked")
+	private Object emailsAfter(Method method, Object[] args) {
+		int size = ((Pageable) args[1]).getPageSize();
+		TreeSet<String> merged = new TreeSet<>();
+		for (String shard : router.getShards()) {
+			merged.addAll((List<String>) callOn(shard, method, args));
+		}
+		List<String> page = new ArrayList<>(size);
+		for (String email : merged) {
+			if (page.size() == size) {
+				break;
+			}
+			page.add(email);
+		}
+		return page;
+	}
+
+	private Object broadcast(Method method, Object[] args) {
+		Class<?> type = method.getReturnType();
+		if (type == void.class) {
+			router.getShards().forEach(shard -> callOn(shard, method, args));
+			return null;
+		}
+		if (type == boolean.class || type == Boolean.class) {
+			return router.getShards().stream().anyMatch(shard -> Boolean.TRUE.equals(callOn(shard, method, args)));
+		}
+		if (type == int.class || type == Integer.class) {
+			return router.getShards().stream().mapToInt(shard -> (Integer) callOn(shard, method, args)).sum();
+		}
+		if (type == long.class || type == Long.class) {
+			return router.getShards().stream().mapToLong(shard -> (Long) callOn(shard, method, args)).sum();
+		}
+		if (type == Optional.class) {
+			for (String shard : router.getShards()) {
+				Optional<?> result = (Optional<?>) callOn(shard, method, args);
+				if (result.isPresent()) {
+					return result;
+				}
+			}
+			return Optional.empty();
+		}
+		if (type.isAssignableFrom(ArrayList.class)) {
+			List<Object> results = new ArrayList<>();
+			router.getShards().forEach(shard -> results.addAll((Collection<?>) callOn(shard, method, args)));
+			return results;
+		}
+		if (Iterable.class.isAssignableFrom(type) || BaseStream.class.isAssignableFrom(type)) {
+			// Page, Slice, Stream: se recorren fijando cada shard con ShardContext
+			throw new UnsupportedOperationException(method.getName() + " no está soportado con sharding");
+		}
+		for (String shard : router.getShards()) {
+			Object result = callOn(shard, method, args);
+			if (result != null) {
+				return result;
+			}
+		}
+		return null;
+	}
+
+	private Object callOn(String shard, Method method, Object[] args) {
+		return ShardContext.callOn(shard, () -> call(method, args));
+	}
+
+	private Object call(Method method, Object[] args) {
+		try {
+			return method.invoke(target, args);
+		} catch (InvocationTargetException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			}
+			if (cause instanceof Error) {
+				throw (Error) cause;
+			}
+			throw new UndeclaredThrowableException(cause);
+		} catch (IllegalAccessException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private static boolean isMiss(Object result) {
+		return result == null || Boolean.FALSE.equals(result)
+				|| (result instanceof Optional && !((Optional<?>) result).isPresent());
+	}
+}
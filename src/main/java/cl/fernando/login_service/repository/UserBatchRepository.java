@@ -0,0 +1,11 @@
+package cl.fernando.login_service.repository;
+
+import java.util.List;
+
+import cl.fernando.login_service.entity.User;
+
+public interface UserBatchRepository {
+
+	void insertAll(List<User> users);
+
+}
@@ -0,0 +1,45 @@
+package cl.fernando.login_service.repository;
+
+import java.util.List;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.transaction.annotation.Transactional;
+
+import cl.fernando.login_service.entity.User;
+
+/**
+ * Inserción masiva con persist directo: save() haría un merge (SELECT previo)
+ * por cada usuario porque el id se asigna en la entidad. Con
+ * hibernate.jdbc.batch_size y order_inserts los INSERT de user y phone se
+ * envían en lotes JDBC.
+ */
+public class UserBatchRepositoryImpl implements UserBatchRepository {
+
+	@PersistenceContext
+	private EntityManager entityManager;
+
+	private final int batchSize;
+
+	public UserBatchRepositoryImpl(@Value("${spring.jpa.properties.hibernate.jdbc.batch_size:50}") int batchSize) {
+		this.batchSize = batchSize;
+	}
+
+	@Override
+	@Transactional
+	public void insertAll(List<User> users) {
+		int count = 0;
+		for (User user : users) {
+			entityManager.persist(user);
+			if (++count % batchSize == 0) {
+				entityManager.flush();
+				entityManager.clear();
+			}
+		}
+		entityManager.flush();
+		entityManager.clear();
+	}
+
+}
@@ -1,13 +1,55 @@
 package cl.fernando.login_service.repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
+import javax.persistence.QueryHint;
+
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
 import cl.fernando.login_service.entity.User;
 
-public interface UserRepository extends JpaRepository<User, String> {
+public interface UserRepository extends JpaRepository<User, String>, UserBatchRepository {
 	
 	Optional<User> findByEmail(String email);
 
+	boolean existsByEmail(String email);
+
+	// Usuario y teléfonos en un solo SELECT para login
+	@Query("select distinct u from User u left join fetch u.phones where u.email = :email")
+	Optional<User> findWithPhonesByEmail(@Param("email") String email);
+
+	// Dueños de un teléfono: el subselect se resuelve solo con el índice (e164, user_id)
+	@Query("select distinct u from User u left join fetch u.phones"
+			+ " where u.id in (select p.user.id from Phone p where p.e164 = :e164)")
+	List<User> findWithPhonesByE164(@Param("e164") String e164);
+
+	// Paginación por clave sobre el índice único de email (sin OFFSET)
+	@Query("select u.email from User u where u.email > :after order by u.email")
+	List<String> findEmailsAfter(@Param("after") String after, Pageable page);
+
+	// Cursor de solo lectura para exportar: el driver trae de a fetchSize filas
+	@QueryHints({ @QueryHint(name = org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE, value = "500"),
+			@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_READONLY, value = "true") })
+	@Query("select u from User u")
+	Stream<User> streamAll();
+
+	@Query("select u.email from User u where u.email in :emails")
+	List<String> findExistingEmails(@Param("emails") Collection<String> emails);
+
+	// Solo reemplaza el hash si nadie lo cambió desde que se leyó
+	@Transactional
+	@Modifying
+	@Query("update User u set u.password = :newHash where u.id = :id and u.password = :oldHash")
+	int updatePasswordHash(@Param("id") String id, @Param("oldHash") String oldHash,
+			@Param("newHash") String newHash);
+
 }
@@ -0,0 +1,117 @@
+package cl.fernando.login_service.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import javax.annotation.PostConstruct;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import cl.fernando.login_service.repository.UserRepository;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Filtro de Bloom en memoria con los emails registrados. Si el filtro dice que
+ * un email no existe, el registro se salta el SELECT de duplicados; los falsos
+ * positivos solo cuestan la consulta que antes se hacía siempre. La restricción
+ * única en BD sigue siendo la fuente de verdad.
+ */
+@Slf4j
+@Component
+public class EmailIndex {
+
+	private static final int WARM_UP_PAGE_SIZE = 5000;
+
+	private final UserRepository repository;
+	private final AtomicLongArray bits;
+	private final long numBits;
+	private final int numHashes;
+
+	public EmailIndex(UserRepository repository,
+			@Value("${users.email-index.expected-insertions:1000000}") long expectedInsertions,
+			@Value("${users.email-index.fpp:0.01}") double fpp) {
+		this.repository = repository;
+		long optimalBits = (long) Math.ceil(-expectedInsertions * Math.log(fpp) / (Math.log(2) * Math.log(2)));
+		this.numBits = Math.max(64, Math.min(optimalBits, Integer.MAX_VALUE));
+		this.numHashes = Math.max(1, (int) Math.round((double) numBits / expectedInsertions * Math.log(2)));
+		this.bits = new AtomicLongArray((int) ((numBits + 63) / 64));
+	}
+
+	@PostConstruct
+	public void warmUp() {
+		long count = 0;
+		String after = "";
+		List<String> page;
+		do {
+			page = repository.findEmailsAfter(after, PageRequest.of(0, WARM_UP_PAGE_SIZE));
+			for (String email : page) {
+				add(email);
+			}
+			count += page.size();
+			if (!page.isEmpty()) {
+				after = page.get(page.size() - 1);
+			}
+		} while (page.size() == WARM_UP_PAGE_SIZE);
+		log.info("Índice de emails precargado con {} usuarios", count);
+	}
+
+	public boolean mightContain(String email) {
+		long hash = hash(email);
+		int h1 = (int) hash;
+		int h2 = (int) (hash >>> 32);
+		for (int i = 1; i <= numHashes; i++) {
+			if (!isSet(index(h1 + i * h2))) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	public void add(String email) {
+		long hash = hash(email);
+		int h1 = (int) hash;
+		int h2 = (int) (hash >>> 32);
+		for (int i = 1; i <= numHashes; i++) {
+			set(index(h1 + i * h2));
+		}
+	}
+
+	private long index(int combined) {
+		return (combined & Integer.MAX_VALUE) % numBits;
+	}
+
+	private boolean isSet(long bit) {
+		return (bits.get((int) (bit >>> 6)) & (1L << bit)) != 0;
+	}
+
+	private void set(long bit) {
+		int word = (int) (bit >>> 6);
+		long mask = 1L << bit;
+		long current;
+		do {
+			current = bits.get(word);
+			if ((current & mask) != 0) {
+				return;
+			}
+		} while (!bits.compareAndSet(word, current, current | mask));
+	}
+
+	// FNV-1a de 64 bits con el mezclado final de MurmurHash3
+	private static long hash(String email) {
+		long h = 0xcbf29ce484222325L;
+		for (byte b : email.getBytes(StandardCharsets.UTF_8)) {
+			h ^= b;
+			h *= 0x100000001b3L;
+		}
+		h ^= h >>> 33;
+		h *= 0xff51afd7ed558ccdL;
+		h ^= h >>> 33;
+		h *= 0xc4ceb9fe1a85ec53L;
+		h ^= h >>> 33;
+		return h;
+	}
+
+}
@@ -0,0 +1,105 @@
+package cl.fernando.login_service.service;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import cl.fernando.login_service.exception.TooManyAttemptsException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Limita los intentos de login por contraseña antes de cualquier trabajo de
+ * BCrypt. Por IP cuenta todos los intentos; por email solo los fallidos, para
+ * que un ataque contra una cuenta no dependa de la IP de origen.
+ *
+ * Por IP basta el contador aproximado: una sobrestimación solo frena antes a
+ * una IP. Por email el conteo es exacto, en una caché acotada con una entrada
+ * por email que vence window-ms después del primer fallo: con un sketch
+ * compartido, unos miles de fallos contra emails cualesquiera saturaban las
+ * celdas y bloqueaban a todos los usuarios. Los fallos de emails no
+ * registrados van a otra caché, así inundarla con emails inventados no
+ * desaloja los contadores de cuentas reales; el límite y la respuesta son los
+ * mismos en ambos casos para no revelar qué emails existen.
+ */
+@Component
+public class LoginThrottle {
+
+	private final Cache<String, Failures> byEmail;
+	private final Cache<String, Failures> byUnknownEmail;
+	private final StripedWindowCounter byIp;
+	private final long emailWindowMs;
+	private final int maxFailuresPerEmail;
+	private final int maxAttemptsPerIp;
+	private final Counter rejected;
+
+	public LoginThrottle(int stripes, long emailWindowMs, int maxFailuresPerEmail, long ipWindowMs,
+			int maxAttemptsPerIp, MeterRegistry meterRegistry) {
+		this(stripes, emailWindowMs, maxFailuresPerEmail, 100000, 10000, ipWindowMs, maxAttemptsPerIp, meterRegistry);
+	}
+
+	@Autowired
+	public LoginThrottle(@Value("${users.login-throttle.stripes:4096}") int stripes,
+			@Value("${users.login-throttle.email.window-ms:900000}") long emailWindowMs,
+			@Value("${users.login-throttle.email.max-failures:10}") int maxFailuresPerEmail,
+			@Value("${users.login-throttle.email.maximum-size:100000}") long maxEmails,
+			@Value("${users.login-throttle.email.unknown-maximum-size:10000}") long maxUnknownEmails,
+			@Value("${users.login-throttle.ip.window-ms:60000}") long ipWindowMs,
+			@Value("${users.login-throttle.ip.max-attempts:100}") int maxAttemptsPerIp,
+			MeterRegistry meterRegistry) {
+		this.byEmail = failureCache(maxEmails, emailWindowMs);
+		this.byUnknownEmail = failureCache(maxUnknownEmails, emailWindowMs);
+		this.byIp = new StripedWindowCounter(stripes, ipWindowMs, 6);
+		this.emailWindowMs = emailWindowMs;
+		this.maxFailuresPerEmail = maxFailuresPerEmail;
+		this.maxAttemptsPerIp = maxAttemptsPerIp;
+		this.rejected = Counter.builder("users.login.throttled").register(meterRegistry);
+	}
+
+	private static Cache<String, Failures> failureCache(long maximumSize, long windowMs) {
+		return Caffeine.newBuilder()
+				.maximumSize(maximumSize)
+				.expireAfterWrite(Duration.ofMillis(windowMs))
+				.build();
+	}
+
+	/** Registra el intento de la IP y rechaza si alguno de los dos límites ya se alcanzó. */
+	public void acquire(String email, String ip) {
+		long now = System.currentTimeMillis();
+		if (byIp.increment(ip, now) > maxAttemptsPerIp) {
+			rejected.increment();
+			throw new TooManyAttemptsException("Demasiados intentos, reintente más tarde", byIp.getBucketMillis());
+		}
+		Failures failures = byEmail.getIfPresent(email);
+		if (failures == null) {
+			failures = byUnknownEmail.getIfPresent(email);
+		}
+		if (failures != null && failures.count.get() >= maxFailuresPerEmail) {
+			rejected.increment();
+			throw new TooManyAttemptsException("Demasiados intentos, reintente más tarde",
+					Math.max(failures.since + emailWindowMs - now, 1));
+		}
+	}
+
+	/** Cuenta un fallo del email; knownUser indica si el email está registrado. */
+	public void recordFailure(String email, boolean knownUser) {
+		Cache<String, Failures> cache = knownUser ? byEmail : byUnknownEmail;
+		// Incrementar no es una escritura: la entrada vence window-ms después del primer fallo
+		cache.get(email, key -> new Failures(System.currentTimeMillis())).count.incrementAndGet();
+	}
+
+	private static final class Failures {
+		private final long since;
+		private final AtomicInteger count = new AtomicInteger();
+
+		private Failures(long since) {
+			this.since = since;
+		}
+	}
+}
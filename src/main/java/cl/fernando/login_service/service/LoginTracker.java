@@ -0,0 +1,116 @@
+package cl.fernando.login_service.service;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.lang.Nullable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import cl.fernando.login_service.util.ShardContext;
+import cl.fernando.login_service.util.ShardRouter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Registro diferido de lastLogin. Los logins se acumulan en memoria (uno por
+ * usuario, se conserva el más reciente) y se escriben periódicamente con un
+ * UPDATE en lote, en vez de una transacción por cada login. Lo pendiente se
+ * escribe también al apagar la aplicación.
+ */
+@Slf4j
+@Component
+public class LoginTracker {
+
+	private static final String UPDATE_LAST_LOGIN =
+			"update user set last_login = ? where id = ? and (last_login is null or last_login < ?)";
+
+	private final JdbcTemplate jdbcTemplate;
+	private final ShardRouter shardRouter;
+	private final int batchSize;
+	private final ConcurrentHashMap<String, LocalDateTime> pending = new ConcurrentHashMap<>();
+
+	public LoginTracker(JdbcTemplate jdbcTemplate, int batchSize, MeterRegistry meterRegistry) {
+		this(jdbcTemplate, batchSize, meterRegistry, null);
+	}
+
+	@Autowired
+	public LoginTracker(JdbcTemplate jdbcTemplate,
+			@Value("${users.login-tracker.batch-size:500}") int batchSize,
+			MeterRegistry meterRegistry, @Nullable ShardRouter shardRouter) {
+		this.jdbcTemplate = jdbcTemplate;
+		this.shardRouter = shardRouter;
+		this.batchSize = batchSize;
+		Gauge.builder("users.login-tracker.pending", pending, Map::size).register(meterRegistry);
+	}
+
+	public void recordLogin(String userId, LocalDateTime lastLogin) {
+		pending.merge(userId, lastLogin, LoginTracker::latest);
+	}
+
+	public int getPendingCount() {
+		return pending.size();
+	}
+
+	@Scheduled(fixedDelayString = "${users.login-tracker.flush-interval-ms:5000}")
+	public synchronized void flush() {
+		if (pending.isEmpty()) {
+			return;
+		}
+		List<Object[]> batch = new ArrayList<>(Math.min(batchSize, pending.size()));
+		for (Map.Entry<String, LocalDateTime> entry : pending.entrySet()) {
+			// Si llegó un login más nuevo mientras tanto, se queda para el próximo flush
+			if (pending.remove(entry.getKey(), entry.getValue())) {
+				Timestamp lastLogin = Timestamp.valueOf(entry.getValue());
+				batch.add(new Object[] { lastLogin, entry.getKey(), lastLogin });
+			}
+			if (batch.size() == batchSize) {
+				write(batch);
+				batch = new ArrayList<>(batchSize);
+			}
+		}
+		write(batch);
+	}
+
+	private void write(List<Object[]> batch) {
+		if (batch.isEmpty()) {
+			return;
+		}
+		try {
+			if (shardRouter == null) {
+				jdbcTemplate.batchUpdate(UPDATE_LAST_LOGIN, batch);
+			} else {
+				// Solo se conoce el id, no el email: se envía a todos y cada shard actualiza sus filas
+				for (String shard : shardRouter.getShards()) {
+					ShardContext.runOn(shard, () -> jdbcTemplate.batchUpdate(UPDATE_LAST_LOGIN, batch));
+				}
+			}
+		} catch (DataAccessException e) {
+			log.warn("No se pudo registrar lastLogin de {} usuarios, se reintentará", batch.size(), e);
+			for (Object[] row : batch) {
+				recordLogin((String) row[1], ((Timestamp) row[0]).toLocalDateTime());
+			}
+		}
+	}
+
+	@PreDestroy
+	public void shutdown() {
+		flush();
+	}
+
+	private static LocalDateTime latest(LocalDateTime a, LocalDateTime b) {
+		return a.isAfter(b) ? a : b;
+	}
+
+}
@@ -0,0 +1,314 @@
+package cl.fernando.login_service.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import javax.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.argon2.Argon2PasswordEncoder;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.crypto.password.Pbkdf2PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import cl.fernando.login_service.exception.ServiceBusyException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Ejecuta el hashing de contraseñas (BCrypt por defecto, o PBKDF2/Argon2 según
+ * password.encoder) en un pool propio, acotado al número de cores,
+ * para que una ráfaga de registros no ocupe todos los hilos de Tomcat.
+ * Si la cola está llena se rechaza de inmediato con ServiceBusyException (503).
+ * Publica password.hash (latencia) y la profundidad de la cola como métricas.
+ */
+@Slf4j
+@Service
+public class PasswordHashingService {
+
+	static final int MIN_STRENGTH = 4;
+	static final int MAX_STRENGTH = 16;
+
+	public static final String BCRYPT = "bcrypt";
+	public static final String PBKDF2 = "pbkdf2";
+	public static final String ARGON2 = "argon2";
+	// OWASP 2023: PBKDF2-HMAC-SHA256 310k iteraciones; Argon2id 19 MiB, t=2, p=1
+	public static final int DEFAULT_PBKDF2_ITERATIONS = 310_000;
+	public static final int DEFAULT_ARGON2_MEMORY_KB = 19_456;
+	public static final int DEFAULT_ARGON2_ITERATIONS = 2;
+
+	private final ThreadPoolExecutor executor;
+	private final PasswordEncoder encoder;
+	private final String encoderId;
+	private final int strength;
+	private final long timeoutMs;
+
+	private final Timer hashTimer;
+	private final Timer verifyTimer;
+	private final Counter rehashCounter;
+	// Hash de referencia para usuarios inexistentes: mismo costo que uno real
+	private final String dummyHash;
+
+	/** Solo BCrypt, para tests y benchmarks. */
+	public PasswordHashingService(int threads, int queueCapacity, long timeoutMs, int strength,
+			boolean calibrate, long targetMs, MeterRegistry meterRegistry) {
+		this(threads, queueCapacity, timeoutMs, BCRYPT, strength, calibrate, targetMs,
+				DEFAULT_PBKDF2_ITERATIONS, DEFAULT_ARGON2_MEMORY_KB, DEFAULT_ARGON2_ITERATIONS, 1, meterRegistry);
+	}
+
+	@Autowired
+	public PasswordHashingService(@Value("${password.hashing.threads:0}") int threads,
+			@Value("${password.hashing.queue-capacity:64}") int queueCapacity,
+			@Value("${password.hashing.timeout-ms:10000}") long timeoutMs,
+			@Value("${password.encoder:bcrypt}") String encoderId,
+			@Value("${password.bcrypt.strength:10}") int strength,
+			@Value("${password.bcrypt.calibrate:false}") boolean calibrate,
+			@Value("${password.bcrypt.target-ms:250}") long targetMs,
+			@Value("${password.pbkdf2.iterations:310000}") int pbkdf2Iterations,
+			@Value("${password.argon2.memory-kb:19456}") int argon2MemoryKb,
+			@Value("${password.argon2.iterations:2}") int argon2Iterations,
+			@Value("${password.argon2.parallelism:1}") int argon2Parallelism,
+			MeterRegistry meterRegistry) {
+		int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+		this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+				new ArrayBlockingQueue<>(queueCapacity), new HashingThreadFactory(),
+				new ThreadPoolExecutor.AbortPolicy());
+		this.timeoutMs = timeoutMs;
+		this.strength = calibrate ? calibrate(targetMs) : strength;
+		this.encoderId = encoderId;
+		this.encoder = createEncoder(encoderId, this.strength, pbkdf2Iterations,
+				argon2MemoryKb, argon2Iterations, argon2Parallelism);
+		this.hashTimer = Timer.builder("password.hash").tag("algorithm", encoderId).register(meterRegistry);
+		this.verifyTimer = Timer.builder("password.verify").tag("algorithm", encoderId).register(meterRegistry);
+		this.rehashCounter = Counter.builder("password.rehash").register(meterRegistry);
+		this.dummyHash = encoder.encode(UUID.randomUUID().toString());
+		Gauge.builder("password.hash.queue.depth", executor, e -> e.getQueue().size()).register(meterRegistry);
+		Gauge.builder("password.hash.active", executor, ThreadPoolExecutor::getActiveCount).register(meterRegistry);
+		Gauge.builder("password.bcrypt.strength", () -> this.strength).register(meterRegistry);
+		log.info("Hashing de contraseñas: {} ({} hilos, cola {}, costo bcrypt {})",
+				encoderId, poolSize, queueCapacity, this.strength);
+	}
+
+	/**
+	 * Los hashes nuevos llevan prefijo {id}. Los hashes BCrypt sin prefijo
+	 * (anteriores a este esquema) se siguen aceptando y se marcan para rehash.
+	 * PBKDF2 no guarda las iteraciones en el hash: una vez que existen hashes
+	 * pbkdf2, password.pbkdf2.iterations no debe cambiarse.
+	 */
+	public static PasswordEncoder createEncoder(String encoderId, int bcryptStrength, int pbkdf2Iterations,
+			int argon2MemoryKb, int argon2Iterations, int argon2Parallelism) {
+		BCryptPasswordEncoder bcrypt = new BCryptPasswordEncoder(bcryptStrength);
+		Pbkdf2PasswordEncoder pbkdf2 = new Pbkdf2PasswordEncoder("", 16, pbkdf2Iterations, 256);
+		pbkdf2.setAlgorithm(Pbkdf2PasswordEncoder.SecretKeyFactoryAlgorithm.PBKDF2WithHmacSHA256);
+		Map<String, PasswordEncoder> encoders = new HashMap<>();
+		encoders.put(BCRYPT, bcrypt);
+		encoders.put(PBKDF2, pbkdf2);
+		encoders.put(ARGON2, new Argon2PasswordEncoder(16, 32, argon2Parallelism, argon2MemoryKb, argon2Iterations));
+		if (!encoders.containsKey(encoderId)) {
+			throw new IllegalArgumentException("password.encoder desconocido: " + encoderId);
+		}
+		DelegatingPasswordEncoder delegating = new DelegatingPasswordEncoder(encoderId, encoders);
+		delegating.setDefaultPasswordEncoderForMatches(bcrypt);
+		return delegating;
+	}
+
+	public String encode(String rawPassword) {
+		return await(submit(rawPassword));
+	}
+
+	/**
+	 * Hashea un lote en paralelo. Mantiene como máximo un hash en vuelo por hilo
+	 * del pool para no llenar la cola que comparten los registros individuales.
+	 */
+	public List<String> encodeAll(List<String> rawPasswords) {
+		List<Future<String>> futures = new ArrayList<>(rawPasswords.size());
+		int window = executor.getMaximumPoolSize();
+		int awaited = 0;
+		for (String rawPassword : rawPasswords) {
+			while (futures.size() - awaited >= window) {
+				await(futures.get(awaited++));
+			}
+			Future<String> future = null;
+			while (future == null) {
+				try {
+					future = executor.submit(() -> timedEncode(rawPassword));
+				} catch (RejectedExecutionException e) {
+					if (awaited == futures.size()) {
+						throw new ServiceBusyException("Servicio ocupado, reintente más tarde");
+					}
+					await(futures.get(awaited++));
+				}
+			}
+			futures.add(future);
+		}
+		List<String> hashes = new ArrayList<>(futures.size());
+		for (Future<String> future : futures) {
+			hashes.add(await(future));
+		}
+		return hashes;
+	}
+
+	/**
+	 * Compara en el pool de BCrypt. Si el usuario no existe (storedHash null)
+	 * compara contra un hash ficticio y devuelve false, para que el tiempo de
+	 * respuesta no revele qué emails están registrados.
+	 */
+	public boolean matches(String rawPassword, String storedHash) {
+		String hash = storedHash != null ? storedHash : dummyHash;
+		Future<Boolean> future;
+		try {
+			future = executor.submit(() -> timedMatches(rawPassword, hash));
+		} catch (RejectedExecutionException e) {
+			throw new ServiceBusyException("Servicio ocupado, reintente más tarde");
+		}
+		return await(future) && storedHash != null;
+	}
+
+	/** true si el hash usa otro algoritmo o un costo menor que el configurado. */
+	public boolean needsRehash(String storedHash) {
+		return storedHash != null && encoder.upgradeEncoding(storedHash);
+	}
+
+	/**
+	 * Calcula el nuevo hash en el pool sin bloquear al llamador y lo entrega a
+	 * onHashed desde el hilo de hashing. Si el pool está lleno se omite: el
+	 * rehash se reintentará en el próximo login exitoso.
+	 */
+	public void rehashAsync(String rawPassword, Consumer<String> onHashed) {
+		try {
+			executor.execute(() -> {
+				try {
+					onHashed.accept(timedEncode(rawPassword));
+					rehashCounter.increment();
+				} catch (RuntimeException e) {
+					log.warn("No se pudo actualizar el hash de contraseña: {}", e.getMessage());
+				}
+			});
+		} catch (RejectedExecutionException e) {
+			log.debug("Rehash omitido, pool de hashing lleno");
+		}
+	}
+
+	Future<String> submit(String rawPassword) {
+		try {
+			return executor.submit(() -> timedEncode(rawPassword));
+		} catch (RejectedExecutionException e) {
+			throw new ServiceBusyException("Servicio ocupado, reintente más tarde");
+		}
+	}
+
+	<T> T await(Future<T> future) {
+		try {
+			return future.get(timeoutMs, TimeUnit.MILLISECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			future.cancel(true);
+			throw new ServiceBusyException("Servicio ocupado, reintente más tarde");
+		} catch (TimeoutException e) {
+			future.cancel(true);
+			throw new ServiceBusyException("Servicio ocupado, reintente más tarde");
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) e.getCause();
+			}
+			throw new IllegalStateException(e.getCause());
+		}
+	}
+
+	private boolean timedMatches(String rawPassword, String hash) {
+		long start = System.nanoTime();
+		boolean matches = encoder.matches(rawPassword, hash);
+		verifyTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+		return matches;
+	}
+
+	private String timedEncode(String rawPassword) {
+		long start = System.nanoTime();
+		String hash = encoder.encode(rawPassword);
+		hashTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+		return hash;
+	}
+
+	/**
+	 * Elige el mayor costo cuyo hash tarda como máximo targetMs en esta máquina.
+	 * Cada punto de costo duplica el tiempo, así que se sube hasta pasarse.
+	 */
+	static int calibrate(long targetMs) {
+		int chosen = MIN_STRENGTH;
+		for (int cost = MIN_STRENGTH; cost <= MAX_STRENGTH; cost++) {
+			BCryptPasswordEncoder candidate = new BCryptPasswordEncoder(cost);
+			long start = System.nanoTime();
+			candidate.encode("calibration-Pass12");
+			long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+			if (elapsedMs > targetMs) {
+				break;
+			}
+			chosen = cost;
+		}
+		return chosen;
+	}
+
+	public String getEncoderId() {
+		return encoderId;
+	}
+
+	public int getStrength() {
+		return strength;
+	}
+
+	public int getQueueDepth() {
+		return executor.getQueue().size();
+	}
+
+	public int getActiveCount() {
+		return executor.getActiveCount();
+	}
+
+	public long getHashCount() {
+		return hashTimer.count();
+	}
+
+	public double getAverageHashMillis() {
+		return hashTimer.mean(TimeUnit.MILLISECONDS);
+	}
+
+	public double getMaxHashMillis() {
+		return hashTimer.max(TimeUnit.MILLISECONDS);
+	}
+
+	@PreDestroy
+	public void shutdown() {
+		executor.shutdown();
+	}
+
+	private static class HashingThreadFactory implements ThreadFactory {
+		private final AtomicInteger counter = new AtomicInteger();
+
+		@Override
+		public Thread newThread(Runnable r) {
+			Thread t = new Thread(r, "bcrypt-" + counter.incrementAndGet());
+			t.setDaemon(true);
+			return t;
+		}
+	}
+
+}
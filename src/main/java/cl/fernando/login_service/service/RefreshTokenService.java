@@ -0,0 +1,131 @@
+package cl.fernando.login_service.service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.UUID;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import cl.fernando.login_service.dto.TokenResponse;
+import cl.fernando.login_service.entity.RefreshToken;
+import cl.fernando.login_service.exception.InvalidRefreshTokenException;
+import cl.fernando.login_service.repository.RefreshTokenRepository;
+import cl.fernando.login_service.util.JwtUtil;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Emite y rota refresh tokens opacos (32 bytes aleatorios). Se guarda solo
+ * su SHA-256: el token tiene entropía completa, así que no hace falta un hash
+ * lento y la búsqueda es por clave primaria.
+ * Cada rotación marca el token como usado con un update condicional y emite
+ * otro de la misma familia; presentar un token ya usado revoca la familia.
+ */
+@Slf4j
+@Service
+public class RefreshTokenService {
+
+	private static final Base64.Encoder BASE64URL = Base64.getUrlEncoder().withoutPadding();
+
+	private final RefreshTokenRepository repository;
+	private final JwtUtil jwtUtil;
+	private final Duration ttl;
+	private final SecureRandom random = new SecureRandom();
+	private final Counter rotated;
+	private final Counter reused;
+	private final Counter rejected;
+
+	public RefreshTokenService(RefreshTokenRepository repository, JwtUtil jwtUtil,
+			@Value("${jwt.refresh.expiration:14d}") Duration ttl,
+			MeterRegistry meterRegistry) {
+		this.repository = repository;
+		this.jwtUtil = jwtUtil;
+		this.ttl = ttl;
+		this.rotated = Counter.builder("jwt.refresh").tag("outcome", "rotated").register(meterRegistry);
+		this.reused = Counter.builder("jwt.refresh").tag("outcome", "reused").register(meterRegistry);
+		this.rejected = Counter.builder("jwt.refresh").tag("outcome", "rejected").register(meterRegistry);
+	}
+
+	/** Abre una familia nueva (sign-up o login) y devuelve el token en claro. */
+	@Transactional
+	public String issue(String userId, String email) {
+		return store(UUID.randomUUID().toString(), userId, email);
+	}
+
+	// Las excepciones de token no revierten: la revocación de la familia debe quedar guardada
+	@Transactional(noRollbackFor = InvalidRefreshTokenException.class)
+	public TokenResponse rotate(String rawToken) {
+		if (rawToken == null || rawToken.isEmpty()) {
+			rejected.increment();
+			throw new InvalidRefreshTokenException("Refresh token inválido");
+		}
+		String hash = hash(rawToken);
+		if (repository.markUsed(hash, LocalDateTime.now()) == 0) {
+			RefreshToken token = repository.findById(hash).orElse(null);
+			if (token != null && token.isUsed() && !token.isRevoked()) {
+				repository.revokeFamily(token.getFamilyId());
+				reused.increment();
+				log.warn("Refresh token reutilizado, familia {} revocada (usuario {})",
+						token.getFamilyId(), token.getUserId());
+			} else {
+				rejected.increment();
+			}
+			throw new InvalidRefreshTokenException("Refresh token inválido o expirado");
+		}
+		// Solo se lee la fila propia del token, nunca el User
+		RefreshToken current = repository.getById(hash);
+		String next = store(current.getFamilyId(), current.getUserId(), current.getEmail());
+		rotated.increment();
+		return new TokenResponse(jwtUtil.generateToken(current.getEmail()), next);
+	}
+
+	/**
+	 * Logout: revoca la familia del token si pertenece a ese email. Un token
+	 * desconocido o de otro usuario se ignora, así el logout es idempotente.
+	 */
+	@Transactional
+	public void revoke(String rawToken, String email) {
+		if (rawToken == null || rawToken.isEmpty()) {
+			return;
+		}
+		repository.findById(hash(rawToken))
+				.filter(token -> token.getEmail().equals(email))
+				.ifPresent(token -> repository.revokeFamily(token.getFamilyId()));
+	}
+
+	@Transactional
+	@Scheduled(fixedDelayString = "${jwt.refresh.purge-interval-ms:3600000}")
+	public void purgeExpired() {
+		int deleted = repository.deleteExpired(LocalDateTime.now());
+		if (deleted > 0) {
+			log.debug("Refresh tokens expirados eliminados: {}", deleted);
+		}
+	}
+
+	private String store(String familyId, String userId, String email) {
+		byte[] bytes = new byte[32];
+		random.nextBytes(bytes);
+		String rawToken = BASE64URL.encodeToString(bytes);
+		LocalDateTime now = LocalDateTime.now();
+		repository.save(new RefreshToken(hash(rawToken), familyId, userId, email, now, now.plus(ttl), false, false));
+		return rawToken;
+	}
+
+	static String hash(String rawToken) {
+		try {
+			byte[] digest = MessageDigest.getInstance("SHA-256").digest(rawToken.getBytes(StandardCharsets.US_ASCII));
+			return BASE64URL.encodeToString(digest);
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+}
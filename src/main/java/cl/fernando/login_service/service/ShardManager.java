@@ -0,0 +1,252 @@
+package cl.fernando.login_service.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import cl.fernando.login_service.config.ShardingProperties;
+import cl.fernando.login_service.dto.ShardRequest;
+import cl.fernando.login_service.dto.ShardStatusResponse;
+import cl.fernando.login_service.entity.Phone;
+import cl.fernando.login_service.entity.User;
+import cl.fernando.login_service.exception.ValidationException;
+import cl.fernando.login_service.repository.ShardRingRepository;
+import cl.fernando.login_service.repository.UserRepository;
+import cl.fernando.login_service.util.ShardContext;
+import cl.fernando.login_service.util.ShardRouter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Alta de shards en caliente. Solo entra al anillo el siguiente shard
+ * declarado con active=false en sharding.shards (ya migrado al arrancar); la
+ * API nunca recibe URLs. El anillo nuevo se persiste en el primario y cada
+ * nodo lo relee cada sharding.refresh-interval-ms y reporta la versión que
+ * usa. El rebalanceo espera a que todos los nodos vivos la reporten y recién
+ * entonces recorre los shards anteriores por email moviendo cada usuario
+ * cuyo dueño cambió: se copia al shard nuevo (si no estaba ya) y después se
+ * borra del anterior. Mientras tanto las lecturas usan el anillo anterior
+ * como respaldo, así que nadie deja de encontrarse. Mover es idempotente, así
+ * que un corte a mitad de camino se retoma recorriendo de nuevo todos los
+ * shards.
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "sharding.enabled", havingValue = "true")
+public class ShardManager {
+
+	private final ShardRouter router;
+	private final ShardingProperties properties;
+	private final ShardRingRepository ringRepository;
+	private final UserRepository userRepository;
+	private final TransactionTemplate transactionTemplate;
+	private final Counter moved;
+	private final String nodeId = UUID.randomUUID().toString();
+	// 0: anillo de la configuración, todavía no hay uno persistido
+	private volatile long ringVersion;
+	private final ExecutorService executor = Executors.newSingleThreadExecutor(r -> {
+		Thread t = new Thread(r, "shard-rebalance");
+		t.setDaemon(true);
+		return t;
+	});
+
+	@PersistenceContext
+	private EntityManager entityManager;
+
+	public ShardManager(ShardRouter router, ShardingProperties properties, ShardRingRepository ringRepository,
+			UserRepository userRepository, PlatformTransactionManager transactionManager,
+			MeterRegistry meterRegistry) {
+		this.router = router;
+		this.properties = properties;
+		this.ringRepository = ringRepository;
+		this.userRepository = userRepository;
+		this.transactionTemplate = new TransactionTemplate(transactionManager);
+		this.moved = Counter.builder("users.shard.moved").register(meterRegistry);
+	}
+
+	/** Agrega el shard y devuelve el rebalanceo en curso (usuarios movidos). */
+	public synchronized CompletableFuture<Long> addShard(ShardRequest request) {
+		String name = request.getName();
+		if (name == null || name.isEmpty()) {
+			throw new ValidationException("El shard requiere name");
+		}
+		if (router.isRebalancing()) {
+			throw new ValidationException("Ya hay un rebalanceo en curso");
+		}
+		List<String> sources = new ArrayList<>(router.getShards());
+		if (sources.contains(name)) {
+			throw new ValidationException("El shard ya existe: " + name);
+		}
+		// La posición en la configuración fija el rango de phone_seq: se agregan en orden
+		List<String> declared = properties.names();
+		if (declared.size() <= sources.size() || !declared.get(sources.size()).equals(name)) {
+			throw new ValidationException("Solo se puede agregar el siguiente shard declarado en sharding.shards"
+					+ (declared.size() > sources.size() ? ": " + declared.get(sources.size()) : ""));
+		}
+		List<String> shards = new ArrayList<>(sources);
+		shards.add(name);
+		long version;
+		try {
+			version = ringRepository.beginRebalance(sources, name);
+		} catch (DataIntegrityViolationException e) {
+			throw new ValidationException("Otro nodo modificó el anillo; reintente");
+		}
+		adopt(shards, true, version);
+		return startRebalance(sources, version);
+	}
+
+	/** Retoma un rebalanceo interrumpido recorriendo todos los shards. */
+	public synchronized CompletableFuture<Long> resumeRebalance() {
+		if (!router.isRebalancing()) {
+			throw new ValidationException("No hay un rebalanceo en curso");
+		}
+		return startRebalance(router.getShards(), ringVersion);
+	}
+
+	public ShardStatusResponse status() {
+		return new ShardStatusResponse(router.getShards(), router.isRebalancing(), (long) moved.count());
+	}
+
+	/**
+	 * Adopta el anillo persistido si cambió y reporta la versión que usa este
+	 * nodo. Si el anillo nombra un shard que este nodo no tiene declarado,
+	 * sigue con el anterior (y lo reporta), así el rebalanceo lo espera.
+	 */
+	@PostConstruct
+	@Scheduled(fixedDelayString = "${sharding.refresh-interval-ms:5000}")
+	public synchronized void refresh() {
+		ringRepository.load().ifPresent(state -> {
+			if (state.getVersion() == ringVersion) {
+				return;
+			}
+			if (!properties.isDeclaredPrefix(state.getShards())) {
+				log.error("El anillo {} (versión {}) no coincide con sharding.shards {}; se mantiene el actual",
+						state.getShards(), state.getVersion(), properties.names());
+				return;
+			}
+			adopt(state.getShards(), state.isRebalancing(), state.getVersion());
+		});
+		ringRepository.report(nodeId, ringVersion, properties.getNodeTimeoutMs());
+	}
+
+	private synchronized void adopt(List<String> shards, boolean rebalancing, long version) {
+		router.adopt(shards, rebalancing);
+		ringVersion = version;
+		ringRepository.report(nodeId, version, properties.getNodeTimeoutMs());
+		log.info("Anillo versión {}: shards {}{}", version, shards, rebalancing ? " (rebalanceando)" : "");
+	}
+
+	private CompletableFuture<Long> startRebalance(List<String> sources, long version) {
+		return CompletableFuture.supplyAsync(() -> {
+			awaitNodes(version);
+			return rebalance(sources);
+		}, executor).whenComplete((count, error) -> {
+			if (error != null) {
+				log.error("Rebalanceo interrumpido; se retoma con POST /admin/shards/rebalance", error);
+			} else {
+				adopt(router.getShards(), false, ringRepository.finishRebalance());
+			}
+		});
+	}
+
+	// Antes de borrar del shard anterior, ningún nodo vivo puede seguir registrando con el anillo viejo
+	private void awaitNodes(long version) {
+		int behind;
+		while ((behind = ringRepository.countNodesBehind(version, properties.getNodeTimeoutMs())) > 0) {
+			log.info("Rebalanceo en espera: {} nodos todavía no usan el anillo versión {}", behind, version);
+			try {
+				Thread.sleep(properties.getRefreshIntervalMs());
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new IllegalStateException("Rebalanceo interrumpido esperando a los nodos", e);
+			}
+		}
+	}
+
+	private long rebalance(List<String> sources) {
+		int batchSize = properties.getRebalanceBatchSize();
+		long count = 0;
+		for (String source : sources) {
+			String after = "";
+			List<String> page;
+			do {
+				String from = after;
+				page = ShardContext.callOn(source,
+						() -> userRepository.findEmailsAfter(from, PageRequest.of(0, batchSize)));
+				for (String email : page) {
+					String owner = router.shardFor(email);
+					if (!owner.equals(source) && move(email, source, owner)) {
+						count++;
+					}
+				}
+				if (!page.isEmpty()) {
+					after = page.get(page.size() - 1);
+				}
+			} while (page.size() == batchSize);
+		}
+		log.info("Rebalanceo: {} usuarios movidos", count);
+		return count;
+	}
+
+	private boolean move(String email, String source, String owner) {
+		Optional<User> found = ShardContext.callOn(source, () -> userRepository.findWithPhonesByEmail(email));
+		if (!found.isPresent()) {
+			return false;
+		}
+		User user = found.get();
+		try {
+			ShardContext.runOn(owner, () -> transactionTemplate.executeWithoutResult(status -> {
+				if (entityManager.find(User.class, user.getId()) == null) {
+					entityManager.persist(copy(user));
+				}
+			}));
+		} catch (DataIntegrityViolationException e) {
+			// Otro usuario con el mismo email se registró en el shard nuevo: no se borra nada
+			log.warn("No se pudo mover {} a {}: {}", user.getId(), owner, e.getMessage());
+			return false;
+		}
+		ShardContext.runOn(source, () -> userRepository.deleteById(user.getId()));
+		moved.increment();
+		return true;
+	}
+
+	// Teléfonos con id null: persist rechaza ids ya asignados si son @GeneratedValue
+	private static User copy(User user) {
+		User copy = new User(user.getId(), user.getName(), user.getEmail(), user.getPassword(),
+				user.getCreated(), user.getLastLogin(), user.isActive(), new ArrayList<>());
+		for (Phone phone : user.getPhones()) {
+			copy.getPhones().add(new Phone(null, phone.getNumber(), phone.getCitycode(), phone.getCountrycode(), copy));
+		}
+		return copy;
+	}
+
+	@PreDestroy
+	public void shutdown() {
+		executor.shutdownNow();
+		// Sin esto el rebalanceo de otro nodo esperaría a que este venza
+		try {
+			ringRepository.removeNode(nodeId);
+		} catch (DataAccessException e) {
+			log.debug("No se pudo quitar el nodo {} de shard_node", nodeId, e);
+		}
+	}
+}
@@ -0,0 +1,121 @@
+package cl.fernando.login_service.service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import cl.fernando.login_service.dto.PhoneRequest;
+import cl.fernando.login_service.dto.UserRequest;
+import cl.fernando.login_service.dto.UserResponse;
+import cl.fernando.login_service.exception.IdempotencyKeyConflictException;
+import cl.fernando.login_service.exception.ValidationException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * Resultados de sign-up por Idempotency-Key, acotados en tamaño y con TTL.
+ * Se guarda el future y no solo la respuesta: un reintento concurrente se
+ * une al cálculo en curso en vez de competir por el insert. Si el sign-up
+ * falla la clave se libera para que el cliente pueda reintentar.
+ * Cada clave queda ligada a un hash del request (incluida la contraseña),
+ * así una clave reutilizada con otros datos no devuelve la respuesta original.
+ */
+@Component
+public class SignUpIdempotencyStore {
+
+	static final int MAX_KEY_LENGTH = 255;
+
+	private final Cache<String, Entry> cache;
+
+	public SignUpIdempotencyStore(@Value("${users.idempotency.maximum-size:50000}") long maximumSize,
+			@Value("${users.idempotency.expire-after-write:1h}") Duration expireAfterWrite,
+			MeterRegistry meterRegistry) {
+		this.cache = Caffeine.newBuilder()
+				.maximumSize(maximumSize)
+				.expireAfterWrite(expireAfterWrite)
+				.recordStats()
+				.build();
+		CaffeineCacheMetrics.monitor(meterRegistry, cache, "users.idempotency");
+	}
+
+	public CompletableFuture<UserResponse> execute(String key, UserRequest request,
+			Supplier<CompletableFuture<UserResponse>> signUp) {
+		if (key.isEmpty() || key.length() > MAX_KEY_LENGTH) {
+			throw new ValidationException("Idempotency-Key inválida");
+		}
+		byte[] fingerprint = fingerprint(request);
+		ConcurrentMap<String, Entry> entries = cache.asMap();
+		Entry entry = new Entry(fingerprint);
+		Entry existing = entries.putIfAbsent(key, entry);
+		if (existing != null) {
+			if (!MessageDigest.isEqual(existing.fingerprint, fingerprint)) {
+				throw new IdempotencyKeyConflictException();
+			}
+			return existing.result;
+		}
+		try {
+			signUp.get().whenComplete((response, error) -> {
+				if (error != null) {
+					entries.remove(key, entry);
+					entry.result.completeExceptionally(error);
+				} else {
+					entry.result.complete(response);
+				}
+			});
+		} catch (RuntimeException e) {
+			entries.remove(key, entry);
+			entry.result.completeExceptionally(e);
+			throw e;
+		}
+		return entry.result;
+	}
+
+	public long size() {
+		return cache.estimatedSize();
+	}
+
+	static byte[] fingerprint(UserRequest request) {
+		try {
+			MessageDigest digest = MessageDigest.getInstance("SHA-256");
+			update(digest, request.getName());
+			update(digest, request.getEmail());
+			update(digest, request.getPassword());
+			if (request.getPhones() != null) {
+				for (PhoneRequest phone : request.getPhones()) {
+					update(digest, String.valueOf(phone.getNumber()));
+					update(digest, String.valueOf(phone.getCitycode()));
+					update(digest, phone.getCountrycode());
+				}
+			}
+			return digest.digest();
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private static void update(MessageDigest digest, String value) {
+		if (value != null) {
+			digest.update(value.getBytes(StandardCharsets.UTF_8));
+		}
+		digest.update((byte) 0);
+	}
+
+	private static final class Entry {
+		private final byte[] fingerprint;
+		private final CompletableFuture<UserResponse> result = new CompletableFuture<>();
+
+		Entry(byte[] fingerprint) {
+			this.fingerprint = fingerprint;
+		}
+	}
+}
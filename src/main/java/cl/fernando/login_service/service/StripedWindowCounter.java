@@ -0,0 +1,109 @@
+package cl.fernando.login_service.service;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Contador aproximado por clave en una ventana deslizante, sin locks ni
+ * objetos por clave. La memoria es fija: {@code stripes} franjas por fila,
+ * dos filas con hashes independientes (estilo count-min, se toma el mínimo),
+ * y en cada franja {@code buckets} sub-ventanas.
+ *
+ * Cada celda empaqueta en un long el número de sub-ventana (bits altos) y su
+ * conteo (24 bits bajos); al llegar a una sub-ventana nueva la celda se
+ * reinicia con CAS. Las colisiones solo pueden sobrestimar el conteo.
+ */
+class StripedWindowCounter {
+
+	private static final int COUNT_BITS = 24;
+	private static final long COUNT_MASK = (1L << COUNT_BITS) - 1;
+	private static final long EPOCH_MASK = -1L >>> COUNT_BITS;
+
+	private final AtomicLongArray cells;
+	private final int stripeMask;
+	private final int buckets;
+	private final long bucketMillis;
+	// Semilla aleatoria: no se pueden fabricar colisiones contra un email ajeno
+	private final long seed = ThreadLocalRandom.current().nextLong();
+
+	StripedWindowCounter(int stripes, long windowMillis, int buckets) {
+		int size = Integer.highestOneBit(Math.max(stripes - 1, 1)) << 1;
+		this.stripeMask = size - 1;
+		this.buckets = buckets;
+		this.bucketMillis = Math.max(windowMillis / buckets, 1);
+		this.cells = new AtomicLongArray(2 * size * buckets);
+	}
+
+	long increment(String key, long nowMillis) {
+		long h = hash(key);
+		long epoch = epoch(nowMillis);
+		int slot = (int) (epoch % buckets);
+		increment(cell(0, (int) h, slot), epoch);
+		increment(cell(1, (int) (h >>> 32), slot), epoch);
+		return estimate(h, epoch);
+	}
+
+	long estimate(String key, long nowMillis) {
+		return estimate(hash(key), epoch(nowMillis));
+	}
+
+	private long epoch(long nowMillis) {
+		return (nowMillis / bucketMillis) & EPOCH_MASK;
+	}
+
+	long getBucketMillis() {
+		return bucketMillis;
+	}
+
+	private long estimate(long h, long epoch) {
+		return Math.min(sum(0, (int) h, epoch), sum(1, (int) (h >>> 32), epoch));
+	}
+
+	private long sum(int row, int stripeHash, long epoch) {
+		long total = 0;
+		for (int slot = 0; slot < buckets; slot++) {
+			long value = cells.get(cell(row, stripeHash, slot));
+			if (((epoch - (value >>> COUNT_BITS)) & EPOCH_MASK) < buckets) {
+				total += value & COUNT_MASK;
+			}
+		}
+		return total;
+	}
+
+	private void increment(int index, long epoch) {
+		while (true) {
+			long value = cells.get(index);
+			long next;
+			if (value >>> COUNT_BITS == epoch) {
+				if ((value & COUNT_MASK) == COUNT_MASK) {
+					return;
+				}
+				next = value + 1;
+			} else {
+				next = (epoch << COUNT_BITS) | 1;
+			}
+			if (cells.compareAndSet(index, value, next)) {
+				return;
+			}
+		}
+	}
+
+	private int cell(int row, int stripeHash, int slot) {
+		return ((row * (stripeMask + 1)) + (stripeHash & stripeMask)) * buckets + slot;
+	}
+
+	// FNV-1a de 64 bits con semilla y el mezclado final de MurmurHash3
+	private long hash(String key) {
+		long h = 0xcbf29ce484222325L ^ seed;
+		for (int i = 0; i < key.length(); i++) {
+			h ^= key.charAt(i);
+			h *= 0x100000001b3L;
+		}
+		h ^= h >>> 33;
+		h *= 0xff51afd7ed558ccdL;
+		h ^= h >>> 33;
+		h *= 0xc4ceb9fe1a85ec53L;
+		h ^= h >>> 33;
+		return h;
+	}
+}
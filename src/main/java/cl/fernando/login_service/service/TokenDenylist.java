@@ -0,0 +1,235 @@
+package cl.fernando.login_service.service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Lista de tokens revocados indexada por jti. Cada entrada vive solo hasta la
+ * expiración del propio token (después el JWT ya no valida), así que la
+ * memoria queda acotada a los tokens revocados aún vigentes.
+ * Si se configura jwt.denylist.file, cada revocación se agrega a un archivo
+ * ("jti expiraciónMillis" por línea) que se relee y compacta al arrancar.
+ *
+ * El archivo y la memoria son de un solo nodo: un logout solo se respeta en
+ * la instancia que lo atendió. Con varios nodos (jwt.denylist.shared=true) la
+ * fuente es la tabla revoked_token de la base (el primario si hay shards):
+ * cada revocación se inserta ahí y cada nodo relee las filas vigentes cada
+ * jwt.denylist.refresh-interval-ms, igual que JwtKeyRing con las claves. Un
+ * token revocado en otro nodo puede seguir aceptándose hasta ese intervalo.
+ */
+@Slf4j
+@Component
+public class TokenDenylist {
+
+	private final ConcurrentHashMap<String, Long> revoked = new ConcurrentHashMap<>();
+	private final Path file;
+	// Solo con jwt.denylist.shared; null en modo de un nodo
+	private final JdbcTemplate jdbcTemplate;
+	private BufferedWriter writer;
+	private long linesWritten;
+
+	public TokenDenylist(String file) {
+		this(file, false, null);
+	}
+
+	@Autowired
+	public TokenDenylist(@Value("${jwt.denylist.file:}") String file,
+			@Value("${jwt.denylist.shared:false}") boolean shared,
+			JdbcTemplate jdbcTemplate) {
+		this.jdbcTemplate = shared ? jdbcTemplate : null;
+		// Con la tabla compartida el archivo local no aporta nada: se ignora
+		this.file = shared || file.isEmpty() ? null : Paths.get(file);
+	}
+
+	@PostConstruct
+	public void load() {
+		if (jdbcTemplate != null) {
+			refresh();
+			log.info("Lista de revocación compartida cargada con {} tokens vigentes", revoked.size());
+			return;
+		}
+		if (file == null) {
+			return;
+		}
+		try {
+			if (Files.exists(file)) {
+				long now = System.currentTimeMillis();
+				List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+				for (String line : lines) {
+					int space = line.indexOf(' ');
+					if (space <= 0) {
+						continue;
+					}
+					long expiresAt;
+					try {
+						expiresAt = Long.parseLong(line.substring(space + 1).trim());
+					} catch (NumberFormatException e) {
+						// Línea cortada por una caída a mitad de append: compact() la descarta
+						log.warn("Línea inválida en la lista de revocación {}: '{}'", file, line);
+						continue;
+					}
+					if (expiresAt > now) {
+						revoked.put(line.substring(0, space), expiresAt);
+					}
+				}
+			}
+			compact();
+			log.info("Lista de revocación cargada con {} tokens vigentes", revoked.size());
+		} catch (IOException e) {
+			throw new UncheckedIOException("No se pudo leer la lista de revocación " + file, e);
+		}
+	}
+
+	public boolean isRevoked(String tokenId) {
+		return tokenId != null && revoked.containsKey(tokenId);
+	}
+
+	public void revoke(String tokenId, Date expiration) {
+		if (tokenId == null) {
+			return;
+		}
+		long expiresAt = expiration.getTime();
+		if (jdbcTemplate != null) {
+			// Primero la tabla: si falla, el logout falla en vez de valer solo en este nodo
+			try {
+				jdbcTemplate.update("insert into revoked_token (jti, expires_at) values (?, ?)",
+						tokenId, new Timestamp(expiresAt));
+			} catch (DuplicateKeyException e) {
+				// Ya revocado (reintento del mismo logout)
+			}
+			revoked.put(tokenId, expiresAt);
+			return;
+		}
+		if (revoked.putIfAbsent(tokenId, expiresAt) == null) {
+			append(tokenId, expiresAt);
+		}
+	}
+
+	/**
+	 * Relee de la tabla compartida las revocaciones vigentes. Se lee la tabla
+	 * completa (solo tiene tokens aún no expirados, acotada por el TTL del
+	 * access token) para no depender del orden en que confirman los nodos.
+	 */
+	@Scheduled(fixedDelayString = "${jwt.denylist.refresh-interval-ms:5000}")
+	public void refresh() {
+		if (jdbcTemplate == null) {
+			return;
+		}
+		// Solo se agrega: lo vencido lo saca purge()
+		jdbcTemplate.query("select jti, expires_at from revoked_token where expires_at > ?",
+				(ResultSet rs) -> {
+					revoked.put(rs.getString(1), rs.getTimestamp(2).getTime());
+				}, new Timestamp(System.currentTimeMillis()));
+	}
+
+	public int size() {
+		return revoked.size();
+	}
+
+	@Scheduled(fixedDelayString = "${jwt.denylist.purge-interval-ms:60000}")
+	public void purge() {
+		long now = System.currentTimeMillis();
+		revoked.values().removeIf(expiresAt -> expiresAt <= now);
+		if (jdbcTemplate != null) {
+			// Cualquier nodo puede borrar: dos deletes concurrentes no se pisan
+			jdbcTemplate.update("delete from revoked_token where expires_at <= ?", new Timestamp(now));
+			return;
+		}
+		// El archivo solo crece; se reescribe cuando la mayoría de sus líneas ya expiró
+		synchronized (this) {
+			if (file != null && linesWritten > 2L * revoked.size() + 1000) {
+				try {
+					compact();
+				} catch (IOException e) {
+					log.warn("No se pudo compactar la lista de revocación {}", file, e);
+				}
+			}
+		}
+	}
+
+	private synchronized void append(String tokenId, long expiresAt) {
+		if (file == null) {
+			return;
+		}
+		try {
+			if (writer == null) {
+				// Una compactación fallida pudo dejarlo cerrado
+				openWriter();
+			}
+			writer.write(tokenId + ' ' + expiresAt);
+			writer.newLine();
+			writer.flush();
+			linesWritten++;
+		} catch (IOException e) {
+			log.warn("No se pudo persistir la revocación del token {}", tokenId, e);
+		}
+	}
+
+	// Si algo falla el archivo anterior queda intacto y se vuelve a abrir para seguir agregando
+	private synchronized void compact() throws IOException {
+		if (file.getParent() != null) {
+			Files.createDirectories(file.getParent());
+		}
+		Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+		try (BufferedWriter out = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+			for (Map.Entry<String, Long> entry : revoked.entrySet()) {
+				out.write(entry.getKey() + ' ' + entry.getValue());
+				out.newLine();
+			}
+		}
+		closeWriter();
+		try {
+			Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			linesWritten = revoked.size();
+		} finally {
+			openWriter();
+		}
+	}
+
+	private void openWriter() throws IOException {
+		writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8, StandardOpenOption.CREATE,
+				StandardOpenOption.APPEND);
+	}
+
+	@PreDestroy
+	public synchronized void close() {
+		closeWriter();
+	}
+
+	private void closeWriter() {
+		if (writer != null) {
+			try {
+				writer.close();
+			} catch (IOException e) {
+				log.warn("No se pudo cerrar la lista de revocación {}", file, e);
+			}
+			writer = null;
+		}
+	}
+
+}
@@ -0,0 +1,65 @@
+package cl.fernando.login_service.service;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Optional;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+
+import cl.fernando.login_service.entity.User;
+import cl.fernando.login_service.repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * Caché acotada de perfiles (usuario + teléfonos) por email. Las instancias
+ * cacheadas se comparten entre requests y se tratan como de solo lectura.
+ * lastLogin puede quedar atrasado hasta la expiración, ya que se escribe en
+ * diferido (LoginTracker).
+ */
+@Component
+public class UserProfileCache {
+
+	private final UserRepository repository;
+	private final Cache<String, User> cache;
+
+	public UserProfileCache(UserRepository repository,
+			@Value("${users.cache.maximum-size:10000}") long maximumSize,
+			@Value("${users.cache.expire-after-write:10m}") Duration expireAfterWrite,
+			MeterRegistry meterRegistry) {
+		this.repository = repository;
+		this.cache = Caffeine.newBuilder()
+				.maximumSize(maximumSize)
+				.expireAfterWrite(expireAfterWrite)
+				.recordStats()
+				.build();
+		CaffeineCacheMetrics.monitor(meterRegistry, cache, "users.profile");
+	}
+
+	public Optional<User> findByEmail(String email) {
+		// Los emails inexistentes no se cachean (el loader devuelve null)
+		return Optional.ofNullable(cache.get(email, key -> repository.findWithPhonesByEmail(key).orElse(null)));
+	}
+
+	public void invalidate(String email) {
+		cache.invalidate(email);
+	}
+
+	public void invalidateAll(Collection<String> emails) {
+		cache.invalidateAll(emails);
+	}
+
+	public Cache<String, User> getCache() {
+		return cache;
+	}
+
+	public CacheStats stats() {
+		return cache.stats();
+	}
+
+}
@@ -0,0 +1,102 @@
+package cl.fernando.login_service.service;
+
+import org.springframework.stereotype.Component;
+
+import cl.fernando.login_service.dto.UserRequest;
+import cl.fernando.login_service.exception.InvalidEmailException;
+import cl.fernando.login_service.exception.InvalidPasswordException;
+
+/**
+ * Validación de formato en una sola pasada, sin regex. Acepta exactamente lo
+ * mismo que las expresiones originales:
+ * email    ^[\w-\.]+@([\w-]+\.)+[\w-]{2,4}$
+ * password ^(?=.*[A-Z])(?=(?:.*\d){2})([a-zA-Z\d]{8,12})$
+ * La longitud se revisa antes de recorrer la entrada.
+ */
+@Component
+public class UserRequestValidator {
+
+	public static final int MAX_EMAIL_LENGTH = 254;
+	public static final int MIN_PASSWORD_LENGTH = 8;
+	public static final int MAX_PASSWORD_LENGTH = 12;
+
+	public void validate(UserRequest req) {
+		if (!isValidEmail(req.getEmail())) {
+			throw new InvalidEmailException();
+		}
+		if (!isValidPassword(req.getPassword())) {
+			throw new InvalidPasswordException();
+		}
+	}
+
+	public static boolean isValidEmail(String email) {
+		if (email == null) {
+			return false;
+		}
+		int len = email.length();
+		if (len == 0 || len > MAX_EMAIL_LENGTH) {
+			return false;
+		}
+		// Parte local: [\w-.]+ hasta la arroba
+		int i = 0;
+		while (i < len) {
+			char c = email.charAt(i);
+			if (c == '@') {
+				break;
+			}
+			if (!isWordChar(c) && c != '-' && c != '.') {
+				return false;
+			}
+			i++;
+		}
+		if (i == 0 || i == len) {
+			return false;
+		}
+		// Dominio: etiquetas [\w-]+ separadas por punto, la última de 2 a 4
+		int dots = 0;
+		int labelLength = 0;
+		for (i++; i < len; i++) {
+			char c = email.charAt(i);
+			if (c == '.') {
+				if (labelLength == 0) {
+					return false;
+				}
+				dots++;
+				labelLength = 0;
+			} else if (isWordChar(c) || c == '-') {
+				labelLength++;
+			} else {
+				return false;
+			}
+		}
+		return dots > 0 && labelLength >= 2 && labelLength <= 4;
+	}
+
+	public static boolean isValidPassword(String password) {
+		if (password == null) {
+			return false;
+		}
+		int len = password.length();
+		if (len < MIN_PASSWORD_LENGTH || len > MAX_PASSWORD_LENGTH) {
+			return false;
+		}
+		boolean upper = false;
+		int digits = 0;
+		for (int i = 0; i < len; i++) {
+			char c = password.charAt(i);
+			if (c >= 'A' && c <= 'Z') {
+				upper = true;
+			} else if (c >= '0' && c <= '9') {
+				digits++;
+			} else if (c < 'a' || c > 'z') {
+				return false;
+			}
+		}
+		return upper && digits >= 2;
+	}
+
+	private static boolean isWordChar(char c) {
+		return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') || c == '_';
+	}
+
+}
@@ -1,5 +1,6 @@
 package cl.fernando.login_service.service;
 
+import java.util.List;
 import java.util.Optional;
 
 import cl.fernando.login_service.dto.UserRequest;
@@ -10,8 +11,14 @@ public interface UserService {
 	
 	UserResponse createUser(UserRequest req);
 	
+	List<UserResponse> createUsers(List<UserRequest> reqs);
+	
 	UserResponse login(String token);
 	
+	void logout(String token, String refreshToken);
+	
 	Optional<User> findByEmail(String email);
 
+	List<UserResponse> findByPhone(String phone);
+
 }
@@ -1,105 +1,325 @@
 package cl.fernando.login_service.service;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
-import org.modelmapper.ModelMapper;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 
-import cl.fernando.login_service.dto.PhoneResponse;
 import cl.fernando.login_service.dto.UserRequest;
 import cl.fernando.login_service.dto.UserResponse;
 import cl.fernando.login_service.entity.Phone;
 import cl.fernando.login_service.entity.User;
+import cl.fernando.login_service.exception.InvalidCredentialsException;
+import cl.fernando.login_service.exception.InvalidTokenException;
+import cl.fernando.login_service.exception.NotFoundException;
+import cl.fernando.login_service.exception.UserAlreadyExistsException;
+import cl.fernando.login_service.exception.ValidationException;
+import cl.fernando.login_service.mapper.UserMapper;
 import cl.fernando.login_service.repository.UserRepository;
+import cl.fernando.login_service.util.ConstraintViolations;
 import cl.fernando.login_service.util.JwtUtil;
+import cl.fernando.login_service.util.PhoneNumbers;
+import cl.fernando.login_service.util.TokenClaims;
+import io.jsonwebtoken.JwtException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 
 @Service
 public class UserServiceImpl implements UserService {
 	
 	private final UserRepository repository;
     private final JwtUtil jwtUtil;
-    private final ModelMapper mapper;
-    private final BCryptPasswordEncoder encoder = new BCryptPasswordEncoder();
+    private final UserMapper mapper;
+    private final PasswordHashingService passwordHashing;
+    private final EmailIndex emailIndex;
+    private final UserRequestValidator validator;
+    private final LoginTracker loginTracker;
+    private final UserProfileCache profileCache;
+    private final TokenDenylist tokenDenylist;
+    private final RefreshTokenService refreshTokens;
+    private final LoginThrottle loginThrottle;
+    private final int maxBatchSize;
 
-    public UserServiceImpl(UserRepository repository, JwtUtil jwtUtil, ModelMapper mapper) {
+    // Tiempo por etapa, para saber qué parte de sign-up/login es la lenta
+    private final Timer signUpValidate;
+    private final Timer signUpDuplicateCheck;
+    private final Timer signUpHash;
+    private final Timer signUpPersist;
+    private final Timer signUpRespond;
+    private final Timer loginVerifyToken;
+    private final Timer loginFindUser;
+    private final Timer loginVerifyPassword;
+    private final Timer loginRespond;
+
+    private static final int EXISTING_EMAILS_CHUNK = 1000;
+
+    public UserServiceImpl(UserRepository repository, JwtUtil jwtUtil, UserMapper mapper,
+                           PasswordHashingService passwordHashing, EmailIndex emailIndex,
+                           UserRequestValidator validator, LoginTracker loginTracker,
+                           UserProfileCache profileCache, TokenDenylist tokenDenylist,
+                           RefreshTokenService refreshTokens, LoginThrottle loginThrottle,
+                           MeterRegistry meterRegistry,
+                           @Value("${users.batch.max-size:1000}") int maxBatchSize) {
         this.repository = repository;
         this.jwtUtil = jwtUtil;
         this.mapper = mapper;
+        this.passwordHashing = passwordHashing;
+        this.emailIndex = emailIndex;
+        this.validator = validator;
+        this.loginTracker = loginTracker;
+        this.profileCache = profileCache;
+        this.tokenDenylist = tokenDenylist;
+        this.refreshTokens = refreshTokens;
+        this.loginThrottle = loginThrottle;
+        this.maxBatchSize = maxBatchSize;
+        this.signUpValidate = stageTimer(meterRegistry, "users.signup.stage", "validate");
+        this.signUpDuplicateCheck = stageTimer(meterRegistry, "users.signup.stage", "duplicate_check");
+        this.signUpHash = stageTimer(meterRegistry, "users.signup.stage", "hash");
+        this.signUpPersist = stageTimer(meterRegistry, "users.signup.stage", "persist");
+        this.signUpRespond = stageTimer(meterRegistry, "users.signup.stage", "respond");
+        this.loginVerifyToken = stageTimer(meterRegistry, "users.login.stage", "verify_token");
+        this.loginFindUser = stageTimer(meterRegistry, "users.login.stage", "find_user");
+        this.loginVerifyPassword = stageTimer(meterRegistry, "users.login.stage", "verify_password");
+        this.loginRespond = stageTimer(meterRegistry, "users.login.stage", "respond");
     }
     
     public UserResponse createUser(UserRequest req) {
+        long start = System.nanoTime();
         // Validaciones
-        if (!req.getEmail().matches("^[\\w-\\.]+@([\\w-]+\\.)+[\\w-]{2,4}$")) {
-            throw new RuntimeException("Formato de email inválido");
+        validator.validate(req);
+        start = record(signUpValidate, start);
+        // Solo se consulta la BD si el índice en memoria no descarta el email
+        if (emailIndex.mightContain(req.getEmail()) && repository.existsByEmail(req.getEmail())) {
+            throw new UserAlreadyExistsException();
+        }
+        start = record(signUpDuplicateCheck, start);
+
+        String passwordHash = passwordHashing.encode(req.getPassword());
+        start = record(signUpHash, start);
+        User newUser = buildUser(req, passwordHash);
+
+        User savedUser;
+        try {
+            savedUser = repository.save(newUser);
+        } catch (DataIntegrityViolationException e) {
+            if (!ConstraintViolations.isDuplicateEmail(e)) {
+                throw e;
+            }
+            // Registro concurrente con el mismo email: lo detiene la restricción única
+            emailIndex.add(newUser.getEmail());
+            throw new UserAlreadyExistsException();
+        }
+        emailIndex.add(savedUser.getEmail());
+        profileCache.invalidate(savedUser.getEmail());
+        start = record(signUpPersist, start);
+
+        UserResponse response = mapper.toResponse(savedUser, jwtUtil.generateToken(savedUser.getEmail()));
+        response.setRefreshToken(refreshTokens.issue(savedUser.getId(), savedUser.getEmail()));
+        record(signUpRespond, start);
+        return response;
+    }
+
+    public List<UserResponse> createUsers(List<UserRequest> reqs) {
+        if (reqs == null || reqs.isEmpty()) {
+            throw new ValidationException("El lote no contiene usuarios");
+        }
+        if (reqs.size() > maxBatchSize) {
+            throw new ValidationException("El lote excede el máximo de " + maxBatchSize + " usuarios");
         }
-        if (!req.getPassword().matches("^(?=.*[A-Z])(?=(?:.*\\d){2})([a-zA-Z\\d]{8,12})$")) {
-            throw new RuntimeException("Formato de password inválido");
+
+        // Validaciones y duplicados dentro del mismo lote
+        Set<String> emails = new HashSet<>();
+        List<String> candidates = new ArrayList<>();
+        for (UserRequest req : reqs) {
+            validator.validate(req);
+            if (!emails.add(req.getEmail())) {
+                throw new UserAlreadyExistsException(req.getEmail());
+            }
+            if (emailIndex.mightContain(req.getEmail())) {
+                candidates.add(req.getEmail());
+            }
         }
-        repository.findByEmail(req.getEmail())
-                  .ifPresent(u -> { throw new RuntimeException("Usuario ya existe"); });
 
+        // Duplicados contra la BD: un IN por cada bloque de emails
+        for (int from = 0; from < candidates.size(); from += EXISTING_EMAILS_CHUNK) {
+            List<String> chunk = candidates.subList(from, Math.min(from + EXISTING_EMAILS_CHUNK, candidates.size()));
+            List<String> existing = repository.findExistingEmails(chunk);
+            if (!existing.isEmpty()) {
+                throw new UserAlreadyExistsException(existing.get(0));
+            }
+        }
+
+        List<String> passwords = new ArrayList<>(reqs.size());
+        for (UserRequest req : reqs) {
+            passwords.add(req.getPassword());
+        }
+        List<String> hashes = passwordHashing.encodeAll(passwords);
+
+        List<User> users = new ArrayList<>(reqs.size());
+        for (int i = 0; i < reqs.size(); i++) {
+            users.add(buildUser(reqs.get(i), hashes.get(i)));
+        }
+
+        try {
+            repository.insertAll(users);
+        } catch (DataIntegrityViolationException e) {
+            if (!ConstraintViolations.isDuplicateEmail(e)) {
+                throw e;
+            }
+            throw new UserAlreadyExistsException();
+        }
+
+        profileCache.invalidateAll(emails);
+        List<UserResponse> responses = new ArrayList<>(users.size());
+        for (User user : users) {
+            emailIndex.add(user.getEmail());
+            responses.add(mapper.toResponse(user, jwtUtil.generateToken(user.getEmail())));
+        }
+        return responses;
+    }
+
+    private User buildUser(UserRequest req, String passwordHash) {
         // Crear user
         User newUser = new User();
         newUser.setName(req.getName());
         newUser.setEmail(req.getEmail());
-        newUser.setPassword(encoder.encode(req.getPassword()));
+        newUser.setPassword(passwordHash);
         newUser.setCreated(LocalDateTime.now());
         newUser.setLastLogin(LocalDateTime.now());
         newUser.setActive(true);
-        newUser.setToken(jwtUtil.generateToken(newUser.getEmail()));
         
         // Mapear phones
         if (req.getPhones() != null) {
             List<Phone> phones = req.getPhones().stream()
-                .map(pr -> {
-                    Phone p = new Phone();
-                    p.setNumber(pr.getNumber());
-                    p.setCitycode(pr.getCitycode());
-                    p.setCountrycode(pr.getCountrycode());
-                    p.setUser(newUser); // ahora sí se puede asignar el user
-                    return p;
-                })
+                .map(pr -> new Phone(null, pr.getNumber(), pr.getCitycode(), pr.getCountrycode(), newUser))
                 .collect(Collectors.toList());
             newUser.setPhones(phones);
         }
-
-        User savedUser = repository.save(newUser);
-
-        return mapper.map(savedUser, UserResponse.class);
+        return newUser;
     }
     
     public UserResponse login(String token) {
-        String email = jwtUtil.extractEmail(token);
-        User user = repository.findByEmail(email)
-                              .orElseThrow(() -> new RuntimeException("Usuario no encontrado"));
+        long start = System.nanoTime();
+        // Firma, expiración y revocación se verifican antes de tocar la BD
+        TokenClaims claims = verifyToken(token);
+        start = record(loginVerifyToken, start);
+        User user = profileCache.findByEmail(claims.getEmail())
+                              .orElseThrow(() -> new NotFoundException("Usuario no encontrado"));
+        start = record(loginFindUser, start);
+        // Con el bearer solo se renueva el access token: nada se escribe en la BD
+        return respond(user, start, false);
+    }
 
-        if (!jwtUtil.validateToken(token, user.getEmail())) {
-            throw new RuntimeException("Token inválido o expirado");
+    /**
+     * Login con email y contraseña. El throttling se aplica antes de buscar al
+     * usuario; si no existe se compara igual contra un hash ficticio, así la
+     * respuesta tarda lo mismo y no revela qué emails están registrados.
+     */
+    public UserResponse loginWithPassword(String email, String password, String clientIp) {
+        if (email == null || password == null) {
+            throw new InvalidCredentialsException("Credenciales inválidas");
         }
+        long start = System.nanoTime();
+        loginThrottle.acquire(email, clientIp);
+        User user = profileCache.findByEmail(email).orElse(null);
+        start = record(loginFindUser, start);
+        boolean valid = passwordHashing.matches(password, user != null ? user.getPassword() : null);
+        start = record(loginVerifyPassword, start);
+        if (!valid || !user.isActive()) {
+            loginThrottle.recordFailure(email, user != null);
+            throw new InvalidCredentialsException("Credenciales inválidas");
+        }
+        if (passwordHashing.needsRehash(user.getPassword())) {
+            scheduleRehash(user, password);
+        }
+        return respond(user, start, true);
+    }
 
-        user.setLastLogin(LocalDateTime.now());
-        user.setToken(jwtUtil.generateToken(user.getEmail()));
-        User updated = repository.save(user);
+    // Costo o algoritmo desactualizado: se re-hashea fuera del request y se guarda con update condicional
+    private void scheduleRehash(User user, String password) {
+        String userId = user.getId();
+        String email = user.getEmail();
+        String oldHash = user.getPassword();
+        passwordHashing.rehashAsync(password, newHash -> {
+            if (repository.updatePasswordHash(userId, oldHash, newHash) == 1) {
+                profileCache.invalidate(email);
+            }
+        });
+    }
 
-        UserResponse response = mapper.map(updated, UserResponse.class);
+    private UserResponse respond(User user, long start, boolean issueRefreshToken) {
+        // lastLogin se escribe en diferido; el access token no se persiste
+        LocalDateTime now = LocalDateTime.now();
+        loginTracker.recordLogin(user.getId(), now);
 
-        if (updated.getPhones() != null) {
-            response.setPhones(
-                updated.getPhones().stream()
-                    .map(p -> new PhoneResponse(
-                        p.getNumber(), p.getCitycode(), p.getCountrycode()))
-                    .collect(Collectors.toList())
-            );
+        UserResponse response = mapper.toResponse(user, jwtUtil.generateToken(user.getEmail()));
+        response.setLastLogin(now);
+        if (issueRefreshToken) {
+            response.setRefreshToken(refreshTokens.issue(user.getId(), user.getEmail()));
         }
-
+        record(loginRespond, start);
         return response;
     }
     
+    public void logout(String token, String refreshToken) {
+        TokenClaims claims = verifyToken(token);
+        tokenDenylist.revoke(claims.getId(), claims.getExpiration());
+        // Sin revocar la familia el refresh token seguiría emitiendo access tokens
+        refreshTokens.revoke(refreshToken, claims.getEmail());
+    }
+
+    private TokenClaims verifyToken(String token) {
+        TokenClaims claims;
+        try {
+            claims = jwtUtil.parseToken(token);
+        } catch (JwtException | IllegalArgumentException e) {
+            throw new InvalidTokenException();
+        }
+        if (tokenDenylist.isRevoked(claims.getId())) {
+            throw new InvalidTokenException();
+        }
+        return claims;
+    }
+    
+    private static Timer stageTimer(MeterRegistry registry, String name, String stage) {
+        return Timer.builder(name).tag("stage", stage).register(registry);
+    }
+
+    private static long record(Timer timer, long start) {
+        long now = System.nanoTime();
+        timer.record(now - start, TimeUnit.NANOSECONDS);
+        return now;
+    }
+    
     public java.util.Optional<User> findByEmail(String email) {
-        return repository.findByEmail(email);
+        return profileCache.findByEmail(email);
+    }
+
+    /**
+     * Usuarios dueños de un número (puede haber más de uno: el teléfono no es
+     * único). La respuesta no lleva token.
+     */
+    public List<UserResponse> findByPhone(String phone) {
+        String e164 = PhoneNumbers.normalize(phone);
+        if (e164 == null) {
+            throw new ValidationException("Número de teléfono inválido");
+        }
+        List<User> users = repository.findWithPhonesByE164(e164);
+        if (users.isEmpty()) {
+            throw new NotFoundException("Usuario no encontrado");
+        }
+        List<UserResponse> responses = new ArrayList<>(users.size());
+        for (User user : users) {
+            responses.add(mapper.toResponse(user, null));
+        }
+        return responses;
     }
 
 }
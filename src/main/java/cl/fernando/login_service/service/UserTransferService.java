@@ -0,0 +1,298 @@
+package cl.fernando.login_service.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import cl.fernando.login_service.dto.ImportResponse;
+import cl.fernando.login_service.dto.PhoneRequest;
+import cl.fernando.login_service.dto.UserExportRecord;
+import cl.fernando.login_service.entity.Phone;
+import cl.fernando.login_service.entity.User;
+import cl.fernando.login_service.exception.ValidationException;
+import cl.fernando.login_service.repository.UserRepository;
+import cl.fernando.login_service.util.ConstraintViolations;
+import cl.fernando.login_service.util.ShardContext;
+import cl.fernando.login_service.util.ShardRouter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Export e import masivo de usuarios en NDJSON (un usuario con sus teléfonos
+ * por línea) con memoria constante:
+ * - export recorre un cursor de solo lectura; por cada bloque de
+ *   {@code batchSize} usuarios trae sus teléfonos en un solo SELECT, escribe
+ *   las líneas y limpia el EntityManager.
+ * - import parsea de a una línea y persiste en lotes con insertAll. El
+ *   password viene ya hasheado y se guarda tal cual (sin BCrypt); los emails
+ *   que ya existen, repetidos o sin password se omiten. Si un lote viola una
+ *   restricción (email registrado entretanto, id repetido) se reintenta de a
+ *   un usuario y el import sigue; la respuesta indica las líneas que fallaron.
+ */
+@Slf4j
+@Service
+public class UserTransferService {
+
+	private static final int MAX_REPORTED_LINES = 100;
+
+	private final UserRepository repository;
+	private final EmailIndex emailIndex;
+	private final ShardRouter shardRouter;
+	private final TransactionTemplate readOnlyTransaction;
+	private final ObjectWriter writer;
+	private final ObjectReader reader;
+	private final int batchSize;
+	private final Counter exported;
+	private final Counter imported;
+	private final Counter skipped;
+	private final Counter failed;
+
+	@PersistenceContext
+	private EntityManager entityManager;
+
+	public UserTransferService(UserRepository repository, EmailIndex emailIndex,
+			PlatformTransactionManager transactionManager, ObjectMapper objectMapper,
+			@Value("${users.transfer.batch-size:500}") int batchSize,
+			MeterRegistry meterRegistry, @Nullable ShardRouter shardRouter) {
+		this.repository = repository;
+		this.emailIndex = emailIndex;
+		this.shardRouter = shardRouter;
+		this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+		this.readOnlyTransaction.setReadOnly(true);
+		// Se vacía el buffer por bloque, no por línea
+		this.writer = objectMapper.writerFor(UserExportRecord.class)
+				.without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+		this.reader = objectMapper.readerFor(UserExportRecord.class);
+		this.batchSize = batchSize;
+		this.exported = Counter.builder("users.transfer").tag("outcome", "exported").register(meterRegistry);
+		this.imported = Counter.builder("users.transfer").tag("outcome", "imported").register(meterRegistry);
+		this.skipped = Counter.builder("users.transfer").tag("outcome", "skipped").register(meterRegistry);
+		this.failed = Counter.builder("users.transfer").tag("outcome", "failed").register(meterRegistry);
+	}
+
+	public long exportTo(OutputStream out) throws IOException {
+		JsonGenerator generator = writer.getFactory().createGenerator(out);
+		generator.setRootValueSeparator(new SerializedString("\n"));
+		long count = 0;
+		// Con sharding cada shard se recorre con su propio cursor
+		for (String shard : shardRouter != null ? shardRouter.getShards() : Collections.singletonList((String) null)) {
+			count += ShardContext.callOn(shard, () -> readOnlyTransaction.execute(status -> exportAll(generator)));
+		}
+		if (count > 0) {
+			generator.writeRaw('\n');
+		}
+		generator.flush();
+		log.info("Export: {} usuarios", count);
+		return count;
+	}
+
+	private long exportAll(JsonGenerator generator) {
+		long count = 0;
+		List<User> block = new ArrayList<>(batchSize);
+		try (Stream<User> users = repository.streamAll()) {
+			Iterator<User> iterator = users.iterator();
+			while (iterator.hasNext()) {
+				block.add(iterator.next());
+				if (block.size() == batchSize) {
+					count += writeBlock(generator, block);
+				}
+			}
+			count += writeBlock(generator, block);
+		}
+		return count;
+	}
+
+	private int writeBlock(JsonGenerator generator, List<User> block) {
+		if (block.isEmpty()) {
+			return 0;
+		}
+		Map<String, List<PhoneRequest>> phones = findPhones(block);
+		try {
+			for (User user : block) {
+				writer.writeValue(generator, new UserExportRecord(user.getId(), user.getName(), user.getEmail(),
+						user.getPassword(), user.getCreated(), user.getLastLogin(), user.isActive(),
+						phones.getOrDefault(user.getId(), Collections.emptyList())));
+			}
+			generator.flush();
+		} catch (IOException e) {
+			throw new UncheckedIOException("No se pudo escribir el export", e);
+		}
+		int written = block.size();
+		exported.increment(written);
+		block.clear();
+		// Los usuarios ya escritos no deben seguir en el contexto de persistencia
+		entityManager.clear();
+		return written;
+	}
+
+	// Solo columnas: cargar entidades Phone volvería a resolver cada User
+	private Map<String, List<PhoneRequest>> findPhones(List<User> block) {
+		List<String> ids = new ArrayList<>(block.size());
+		for (User user : block) {
+			ids.add(user.getId());
+		}
+		List<Object[]> rows = entityManager.createQuery(
+				"select p.user.id, p.number, p.citycode, p.countrycode from Phone p where p.user.id in :ids",
+				Object[].class)
+				.setParameter("ids", ids)
+				.getResultList();
+		Map<String, List<PhoneRequest>> phones = new HashMap<>();
+		for (Object[] row : rows) {
+			phones.computeIfAbsent((String) row[0], id -> new ArrayList<>())
+					.add(new PhoneRequest((Long) row[1], (Integer) row[2], (String) row[3]));
+		}
+		return phones;
+	}
+
+	public ImportResponse importFrom(InputStream in) throws IOException {
+		ImportProgress progress = new ImportProgress();
+		List<UserExportRecord> batch = new ArrayList<>(batchSize);
+		List<Long> lines = new ArrayList<>(batchSize);
+		try (MappingIterator<UserExportRecord> records = reader.readValues(in)) {
+			while (records.hasNextValue()) {
+				batch.add(records.nextValue());
+				lines.add((long) records.getCurrentLocation().getLineNr());
+				if (batch.size() == batchSize) {
+					insert(batch, lines, progress);
+					batch.clear();
+					lines.clear();
+				}
+			}
+		} catch (JsonProcessingException e) {
+			// Los lotes anteriores ya quedaron guardados; reimportar el archivo los omite
+			throw new ValidationException("NDJSON inválido cerca de la línea "
+					+ e.getLocation().getLineNr() + " (" + progress.processed() + " ya procesados)");
+		}
+		insert(batch, lines, progress);
+		log.info("Import: {} usuarios, {} omitidos, {} con error", progress.imported, progress.skipped,
+				progress.failed);
+		return new ImportResponse(progress.imported, progress.skipped, progress.failed, progress.failedLines);
+	}
+
+	private void insert(List<UserExportRecord> batch, List<Long> lines, ImportProgress progress) {
+		Map<String, Integer> byEmail = new LinkedHashMap<>();
+		for (int i = 0; i < batch.size(); i++) {
+			UserExportRecord record = batch.get(i);
+			if (record.getEmail() != null && !record.getEmail().isEmpty()
+					&& record.getPassword() != null && !record.getPassword().isEmpty()) {
+				byEmail.putIfAbsent(record.getEmail(), i);
+			}
+		}
+		if (!byEmail.isEmpty()) {
+			Set<String> existing = new HashSet<>(repository.findExistingEmails(byEmail.keySet()));
+			byEmail.keySet().removeAll(existing);
+		}
+		List<User> users = new ArrayList<>(byEmail.size());
+		for (int index : byEmail.values()) {
+			users.add(toUser(batch.get(index)));
+		}
+		int stored = 0;
+		long failedBefore = progress.failed;
+		if (!users.isEmpty()) {
+			try {
+				repository.insertAll(users);
+				users.forEach(user -> emailIndex.add(user.getEmail()));
+				stored = users.size();
+			} catch (DataIntegrityViolationException e) {
+				// El lote se revirtió completo: se reintenta de a uno con entidades nuevas
+				stored = insertOneByOne(batch, lines, byEmail.values(), progress);
+			}
+		}
+		long skippedInBatch = batch.size() - stored - (progress.failed - failedBefore);
+		progress.imported += stored;
+		progress.skipped += skippedInBatch;
+		imported.increment(stored);
+		skipped.increment(skippedInBatch);
+	}
+
+	private int insertOneByOne(List<UserExportRecord> batch, List<Long> lines, Iterable<Integer> indexes,
+			ImportProgress progress) {
+		int stored = 0;
+		for (int index : indexes) {
+			UserExportRecord record = batch.get(index);
+			try {
+				repository.insertAll(Collections.singletonList(toUser(record)));
+				emailIndex.add(record.getEmail());
+				stored++;
+			} catch (DataIntegrityViolationException e) {
+				if (ConstraintViolations.isDuplicateEmail(e)) {
+					// Registrado por otro camino después de la consulta de existentes: se omite
+					continue;
+				}
+				log.warn("Import: línea {} no se pudo guardar: {}", lines.get(index),
+						e.getMostSpecificCause().getMessage());
+				progress.failed++;
+				failed.increment();
+				if (progress.failedLines.size() < MAX_REPORTED_LINES) {
+					progress.failedLines.add(lines.get(index));
+				}
+			}
+		}
+		return stored;
+	}
+
+	private static final class ImportProgress {
+		long imported;
+		long skipped;
+		long failed;
+		final List<Long> failedLines = new ArrayList<>();
+
+		long processed() {
+			return imported + skipped + failed;
+		}
+	}
+
+	private static User toUser(UserExportRecord record) {
+		User user = new User();
+		if (record.getId() != null) {
+			user.setId(record.getId());
+		}
+		user.setName(record.getName());
+		user.setEmail(record.getEmail());
+		user.setPassword(record.getPassword());
+		if (record.getCreated() != null) {
+			user.setCreated(record.getCreated());
+		}
+		user.setLastLogin(record.getLastLogin());
+		user.setActive(record.isActive());
+		List<Phone> phones = new ArrayList<>();
+		if (record.getPhones() != null) {
+			for (PhoneRequest phone : record.getPhones()) {
+				phones.add(new Phone(null, phone.getNumber(), phone.getCitycode(), phone.getCountrycode(), user));
+			}
+		}
+		user.setPhones(phones);
+		return user;
+	}
+}
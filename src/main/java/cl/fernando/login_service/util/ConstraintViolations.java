@@ -0,0 +1,31 @@
+package cl.fernando.login_service.util;
+
+import java.util.Locale;
+
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import cl.fernando.login_service.entity.User;
+
+/**
+ * Distingue un email duplicado (409) de cualquier otra violación de
+ * integridad (teléfono, NOT NULL, colisión de id), que es un error nuestro.
+ * H2 informa el índice de la restricción ("PUBLIC.UK_USER_EMAIL_INDEX_2 ON
+ * ..."), por eso se busca el nombre dentro del texto.
+ */
+public final class ConstraintViolations {
+
+	private ConstraintViolations() {
+	}
+
+	public static boolean isDuplicateEmail(DataIntegrityViolationException e) {
+		for (Throwable cause = e.getCause(); cause != null; cause = cause.getCause()) {
+			if (cause instanceof ConstraintViolationException) {
+				String name = ((ConstraintViolationException) cause).getConstraintName();
+				return name != null && name.toLowerCase(Locale.ROOT).contains(User.EMAIL_CONSTRAINT);
+			}
+		}
+		return false;
+	}
+
+}
@@ -0,0 +1,439 @@
+package cl.fernando.login_service.util;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigInteger;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.security.GeneralSecurityException;
+import java.security.Key;
+import java.security.KeyFactory;
+import java.security.KeyPair;
+import java.security.MessageDigest;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.interfaces.ECPublicKey;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Anillo de claves de firma JWT identificadas por kid.
+ *
+ * Con ES256 la clave más nueva queda "en espera": se publica en el JWKS pero
+ * todavía no firma, para que los servicios que cachean el JWKS ya la conozcan
+ * cuando empiece a usarse. Cada rotación la promueve a clave de firma, genera
+ * una nueva en espera y conserva las {@code jwt.keys.retain} anteriores solo
+ * para verificar; retain * intervalo de rotación debe cubrir jwt.expiration.
+ * Con HS256 se usa una única clave derivada de jwt.secret y no se publica.
+ *
+ * Si se configura jwt.keys.dir, cada clave se guarda en un archivo
+ * ({@code <kid>.key}) y se recarga al arrancar. Sin jwt.keys.shared el
+ * directorio es de un solo proceso: se toma un lock exclusivo y un segundo
+ * nodo apuntando al mismo directorio no arranca.
+ *
+ * En ambos modos se rota según la edad de la clave en espera (su fecha de
+ * creación), no según el tiempo que lleva el proceso: un pod que reinicia más
+ * seguido que el intervalo igual rota al arrancar o en la siguiente revisión.
+ *
+ * Con varios nodos (jwt.keys.shared=true) el directorio compartido es la
+ * única fuente: cada nodo lo relee cada jwt.keys.refresh-interval-ms y firma
+ * con la misma clave; solo rota (y borra claves vencidas) el nodo que obtiene
+ * el lock de {@code rotation.lock}, cuando la clave en espera cumple el
+ * intervalo de rotación. El directorio debe soportar locks de archivo; las
+ * claves también pueden escribirse desde fuera con el mismo formato.
+ */
+@Slf4j
+@Component
+public class JwtKeyRing {
+
+	private static final Base64.Encoder BASE64URL = Base64.getUrlEncoder().withoutPadding();
+
+	@Getter
+	private final SignatureAlgorithm algorithm;
+	private final Path dir;
+	private final int retain;
+	private final boolean shared;
+	private final long rotationIntervalMs;
+	private FileChannel ownerLockChannel;
+
+	// Más nueva primero; solo se modifica dentro de rotate()
+	private final List<SigningKey> keys = new ArrayList<>();
+	// Caché de verificación por kid, leída sin bloqueo en cada parseo
+	private final Map<String, Key> verificationKeys = new ConcurrentHashMap<>();
+	private volatile SigningKey signingKey;
+	private volatile JwkSet jwkSet;
+
+	public JwtKeyRing(String algorithm, String secret, String dir, int retain) {
+		this(algorithm, secret, dir, retain, false, 86400000L);
+	}
+
+	@Autowired
+	public JwtKeyRing(@Value("${jwt.algorithm:ES256}") String algorithm,
+			@Value("${jwt.secret:}") String secret,
+			@Value("${jwt.keys.dir:}") String dir,
+			@Value("${jwt.keys.retain:1}") int retain,
+			@Value("${jwt.keys.shared:false}") boolean shared,
+			@Value("${jwt.keys.rotation-interval-ms:86400000}") long rotationIntervalMs) {
+		this.algorithm = SignatureAlgorithm.forName(algorithm);
+		if (this.algorithm != SignatureAlgorithm.HS256 && this.algorithm != SignatureAlgorithm.ES256) {
+			throw new IllegalArgumentException("Algoritmo JWT no soportado: " + algorithm);
+		}
+		this.dir = dir.isEmpty() ? null : Paths.get(dir);
+		this.retain = Math.max(retain, 0);
+		this.shared = shared && !this.algorithm.isHmac();
+		this.rotationIntervalMs = rotationIntervalMs;
+		if (this.shared && this.dir == null) {
+			throw new IllegalArgumentException("jwt.keys.shared requiere jwt.keys.dir");
+		}
+
+		if (this.algorithm.isHmac()) {
+			if (secret.isEmpty()) {
+				throw new IllegalArgumentException("jwt.secret es obligatorio con HS256");
+			}
+			Key key = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+			keys.add(new SigningKey(thumbprint(key.getEncoded()), System.currentTimeMillis(), key, key));
+			publish(0);
+		} else if (this.shared) {
+			withRotationLock(true, () -> {
+				List<SigningKey> loaded = load();
+				while (loaded.size() < 2) {
+					loaded.add(0, generate());
+				}
+			});
+			keys.addAll(load());
+			publish(1);
+		} else {
+			lockOwner();
+			keys.addAll(load());
+			while (keys.size() < 2) {
+				keys.add(0, generate());
+			}
+			publish(1);
+			if (isDue(keys.get(0))) {
+				rotate();
+			}
+		}
+		log.info("JWT {}: firma con kid {}, {} claves publicadas", this.algorithm.getValue(),
+				signingKey.getKid(), verificationKeys.size());
+	}
+
+	public SigningKey getSigningKey() {
+		return signingKey;
+	}
+
+	/** Clave de verificación para el kid, o null si no pertenece al anillo. */
+	public Key getVerificationKey(String kid) {
+		if (kid == null) {
+			// Tokens HS256 emitidos antes de incluir kid
+			return algorithm.isHmac() ? signingKey.getVerificationKey() : null;
+		}
+		return verificationKeys.get(kid);
+	}
+
+	public JwkSet getJwkSet() {
+		return jwkSet;
+	}
+
+	public synchronized void rotate() {
+		if (algorithm.isHmac() || shared) {
+			return;
+		}
+		keys.add(0, generate());
+		while (keys.size() > 2 + retain) {
+			SigningKey evicted = keys.remove(keys.size() - 1);
+			delete(evicted);
+		}
+		publish(1);
+		log.info("Rotación JWT: firma con kid {}, en espera {}", signingKey.getKid(), keys.get(0).getKid());
+	}
+
+	/**
+	 * Rota si la clave en espera ya cumplió el intervalo. En modo compartido
+	 * solo rota el nodo que obtiene el lock, y luego todos publican lo que haya
+	 * en el directorio.
+	 */
+	@Scheduled(fixedDelayString = "${jwt.keys.refresh-interval-ms:60000}",
+			initialDelayString = "${jwt.keys.refresh-interval-ms:60000}")
+	public synchronized void refresh() {
+		if (algorithm.isHmac()) {
+			return;
+		}
+		if (!shared) {
+			if (isDue(keys.get(0))) {
+				rotate();
+			}
+			return;
+		}
+		withRotationLock(false, () -> {
+			List<SigningKey> current = load();
+			if (current.isEmpty() || isDue(current.get(0))) {
+				current.add(0, generate());
+				while (current.size() > 2 + retain) {
+					delete(current.remove(current.size() - 1));
+				}
+				log.info("Rotación JWT: nueva clave en espera {}", current.get(0).getKid());
+			}
+		});
+		List<SigningKey> loaded = load();
+		if (loaded.size() < 2) {
+			log.warn("Solo {} claves JWT en {}; se mantiene el anillo actual", loaded.size(), dir);
+			return;
+		}
+		String previous = signingKey.getKid();
+		keys.clear();
+		keys.addAll(loaded);
+		publish(1);
+		if (!previous.equals(signingKey.getKid())) {
+			log.info("JWT: firma con kid {}", signingKey.getKid());
+		}
+	}
+
+	private boolean isDue(SigningKey standby) {
+		return System.currentTimeMillis() - standby.getCreated() >= rotationIntervalMs;
+	}
+
+	@PreDestroy
+	public synchronized void close() {
+		if (ownerLockChannel != null) {
+			try {
+				ownerLockChannel.close();
+			} catch (IOException e) {
+				log.warn("No se pudo liberar el lock de {}", dir, e);
+			}
+			ownerLockChannel = null;
+		}
+	}
+
+	// Un directorio no compartido con dos procesos haría que cada uno borre las claves del otro
+	private void lockOwner() {
+		if (dir == null) {
+			return;
+		}
+		try {
+			Files.createDirectories(dir);
+			FileChannel channel = FileChannel.open(dir.resolve("owner.lock"), StandardOpenOption.CREATE,
+					StandardOpenOption.WRITE);
+			FileLock lock;
+			try {
+				lock = channel.tryLock();
+			} catch (OverlappingFileLockException e) {
+				// Otro contexto de este mismo proceso (tests, reinicio de devtools)
+				channel.close();
+				return;
+			}
+			if (lock == null) {
+				channel.close();
+				throw new IllegalStateException("Otro proceso usa las claves JWT de " + dir
+						+ "; con varios nodos configurar jwt.keys.shared=true");
+			}
+			ownerLockChannel = channel;
+		} catch (IOException e) {
+			throw new UncheckedIOException("No se pudo tomar el lock de " + dir, e);
+		}
+	}
+
+	private void withRotationLock(boolean wait, Runnable action) {
+		try {
+			Files.createDirectories(dir);
+			try (FileChannel channel = FileChannel.open(dir.resolve("rotation.lock"), StandardOpenOption.CREATE,
+					StandardOpenOption.WRITE)) {
+				FileLock lock = wait ? channel.lock() : channel.tryLock();
+				if (lock != null) {
+					action.run();
+				}
+			} catch (OverlappingFileLockException e) {
+				// Otro anillo de este proceso está rotando
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException("No se pudo usar el lock de rotación de " + dir, e);
+		}
+	}
+
+	private void publish(int signingIndex) {
+		for (SigningKey key : keys) {
+			verificationKeys.put(key.getKid(), key.getVerificationKey());
+		}
+		verificationKeys.keySet().removeIf(kid -> keys.stream().noneMatch(k -> k.getKid().equals(kid)));
+		signingKey = keys.get(signingIndex);
+		jwkSet = buildJwkSet();
+	}
+
+	private SigningKey generate() {
+		KeyPair pair = Keys.keyPairFor(algorithm);
+		SigningKey key = new SigningKey(thumbprint(pair.getPublic().getEncoded()), System.currentTimeMillis(),
+				pair.getPrivate(), pair.getPublic());
+		store(key);
+		return key;
+	}
+
+	// Formato: creación (millis), clave privada PKCS#8 y pública X.509 en Base64, una por línea
+	private void store(SigningKey key) {
+		if (dir == null) {
+			return;
+		}
+		Path file = dir.resolve(key.getKid() + ".key");
+		String content = key.getCreated() + "\n"
+				+ Base64.getEncoder().encodeToString(key.getKey().getEncoded()) + "\n"
+				+ Base64.getEncoder().encodeToString(key.getVerificationKey().getEncoded()) + "\n";
+		// Se escribe aparte y se mueve: otro nodo puede estar leyendo el directorio
+		Path tmp = dir.resolve(key.getKid() + ".key.tmp");
+		try {
+			Files.createDirectories(dir);
+			Files.write(tmp, content.getBytes(StandardCharsets.US_ASCII));
+			try {
+				Files.setPosixFilePermissions(tmp, PosixFilePermissions.fromString("rw-------"));
+			} catch (UnsupportedOperationException e) {
+				// Sistema de archivos sin permisos POSIX
+			}
+			Files.move(tmp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+		} catch (IOException e) {
+			throw new UncheckedIOException("No se pudo guardar la clave JWT " + file, e);
+		}
+	}
+
+	private List<SigningKey> load() {
+		if (dir == null || !Files.isDirectory(dir)) {
+			return Collections.emptyList();
+		}
+		List<SigningKey> loaded = new ArrayList<>();
+		try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, "*.key")) {
+			KeyFactory factory = KeyFactory.getInstance("EC");
+			for (Path file : files) {
+				List<String> lines;
+				try {
+					lines = Files.readAllLines(file, StandardCharsets.US_ASCII);
+				} catch (NoSuchFileException e) {
+					// Borrada por el nodo que rota mientras se listaba
+					continue;
+				}
+				PrivateKey privateKey = factory.generatePrivate(
+						new PKCS8EncodedKeySpec(Base64.getDecoder().decode(lines.get(1))));
+				PublicKey publicKey = factory.generatePublic(
+						new X509EncodedKeySpec(Base64.getDecoder().decode(lines.get(2))));
+				loaded.add(new SigningKey(thumbprint(publicKey.getEncoded()), Long.parseLong(lines.get(0)),
+						privateKey, publicKey));
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException("No se pudieron leer las claves JWT de " + dir, e);
+		} catch (GeneralSecurityException | RuntimeException e) {
+			throw new IllegalStateException("Clave JWT inválida en " + dir, e);
+		}
+		loaded.sort(Comparator.comparingLong(SigningKey::getCreated).reversed());
+		// Las que excedan la retención quedaron de una ejecución anterior; en modo
+		// compartido solo las borra el nodo que rota
+		while (loaded.size() > 2 + retain) {
+			SigningKey extra = loaded.remove(loaded.size() - 1);
+			if (!shared) {
+				delete(extra);
+			}
+		}
+		return loaded;
+	}
+
+	private void delete(SigningKey key) {
+		if (dir == null) {
+			return;
+		}
+		try {
+			Files.deleteIfExists(dir.resolve(key.getKid() + ".key"));
+		} catch (IOException e) {
+			log.warn("No se pudo borrar la clave JWT {}: {}", key.getKid(), e.getMessage());
+		}
+	}
+
+	private JwkSet buildJwkSet() {
+		StringBuilder json = new StringBuilder("{\"keys\":[");
+		if (!algorithm.isHmac()) {
+			for (int i = 0; i < keys.size(); i++) {
+				SigningKey key = keys.get(i);
+				ECPublicKey publicKey = (ECPublicKey) key.getVerificationKey();
+				if (i > 0) {
+					json.append(',');
+				}
+				json.append("{\"kty\":\"EC\",\"crv\":\"P-256\",\"use\":\"sig\",\"alg\":\"ES256\",\"kid\":\"")
+						.append(key.getKid())
+						.append("\",\"x\":\"").append(coordinate(publicKey.getW().getAffineX()))
+						.append("\",\"y\":\"").append(coordinate(publicKey.getW().getAffineY()))
+						.append("\"}");
+			}
+		}
+		json.append("]}");
+		String body = json.toString();
+		return new JwkSet(body, '"' + thumbprint(body.getBytes(StandardCharsets.US_ASCII)) + '"');
+	}
+
+	// Coordenada P-256 sin signo, 32 bytes big-endian (RFC 7518 §6.2.1.2)
+	private static String coordinate(BigInteger value) {
+		byte[] raw = value.toByteArray();
+		byte[] fixed = new byte[32];
+		int length = Math.min(raw.length, 32);
+		System.arraycopy(raw, raw.length - length, fixed, 32 - length, length);
+		return BASE64URL.encodeToString(fixed);
+	}
+
+	private static String thumbprint(byte[] data) {
+		try {
+			byte[] digest = MessageDigest.getInstance("SHA-256").digest(data);
+			return BASE64URL.encodeToString(Arrays.copyOf(digest, 12));
+		} catch (GeneralSecurityException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	@Getter
+	public static final class SigningKey {
+		private final String kid;
+		private final long created;
+		private final Key key;
+		private final Key verificationKey;
+
+		SigningKey(String kid, long created, Key key, Key verificationKey) {
+			this.kid = kid;
+			this.created = created;
+			this.key = key;
+			this.verificationKey = verificationKey;
+		}
+	}
+
+	/** JWKS serializado una vez por rotación, con su ETag. */
+	@Getter
+	public static final class JwkSet {
+		private final String json;
+		private final String etag;
+
+		JwkSet(String json, String etag) {
+			this.json = json;
+			this.etag = etag;
+		}
+	}
+}
@@ -1,54 +1,94 @@
 package cl.fernando.login_service.util;
 
-import java.nio.charset.StandardCharsets;
 import java.security.Key;
 import java.util.Date;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwsHeader;
 import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.SignatureAlgorithm;
-import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.SigningKeyResolverAdapter;
+import io.jsonwebtoken.security.SignatureException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 
 @Component
 public class JwtUtil {
 
-	private final Key key;
+	private final JwtKeyRing keyRing;
     private final long expiration;
+    // El parser de jjwt es inmutable y thread-safe: se construye una sola vez
+    private final JwtParser parser;
+    private final Timer signTimer;
+    private final Timer verifyTimer;
 
-    public JwtUtil(@Value("${jwt.secret}") String secret,
-                   @Value("${jwt.expiration:3600000}") long expiration) {
-    	this.key = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+    public JwtUtil(JwtKeyRing keyRing,
+                   @Value("${jwt.expiration:900000}") long expiration,
+                   MeterRegistry meterRegistry) {
+    	this.keyRing = keyRing;
         this.expiration = expiration;
+        // La clave se resuelve por kid contra la caché del anillo, sin bloqueo
+        this.parser = Jwts.parserBuilder().setSigningKeyResolver(new SigningKeyResolverAdapter() {
+            // jjwt 0.11 declara el header sin tipo: JwsHeader<?> no sobrescribe (mismo erasure)
+            @Override
+            @SuppressWarnings("rawtypes")
+            public Key resolveSigningKey(JwsHeader header, Claims claims) {
+                Key key = keyRing.getVerificationKey(header.getKeyId());
+                if (key == null) {
+                    throw new SignatureException("kid desconocido: " + header.getKeyId());
+                }
+                return key;
+            }
+        }).build();
+        String algorithm = keyRing.getAlgorithm().getValue();
+        this.signTimer = Timer.builder("jwt.sign").tag("algorithm", algorithm).register(meterRegistry);
+        this.verifyTimer = Timer.builder("jwt.verify").tag("algorithm", algorithm).register(meterRegistry);
     }
 
     public String generateToken(String email) {
-        return Jwts.builder()
+        long start = System.nanoTime();
+        JwtKeyRing.SigningKey signingKey = keyRing.getSigningKey();
+        String token = Jwts.builder()
+                .setHeaderParam(JwsHeader.KEY_ID, signingKey.getKid())
+                .setId(UUID.randomUUID().toString())
                 .setSubject(email)
                 .setIssuedAt(new Date())
                 .setExpiration(new Date(System.currentTimeMillis() + expiration))
-                .signWith(key, SignatureAlgorithm.HS256)
+                .signWith(signingKey.getKey(), keyRing.getAlgorithm())
                 .compact();
+        signTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return token;
+    }
+
+    /**
+     * Verifica firma y expiración con un único parseo y devuelve los claims
+     * necesarios. Lanza JwtException si el token no es válido o expiró.
+     */
+    public TokenClaims parseToken(String token) {
+        long start = System.nanoTime();
+        try {
+            Claims claims = parser.parseClaimsJws(token).getBody();
+            return new TokenClaims(claims.getId(), claims.getSubject(), claims.getExpiration());
+        } finally {
+            verifyTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
     }
 
     public String extractEmail(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(key)
-                .build()
-                .parseClaimsJws(token)
-                .getBody()
-                .getSubject();
+        return parseToken(token).getEmail();
     }
 
     public boolean validateToken(String token, String email) {
         try {
-            String extractedEmail = extractEmail(token);
-            return extractedEmail.equals(email) &&
-                   Jwts.parserBuilder().setSigningKey(key).build()
-                       .parseClaimsJws(token).getBody()
-                       .getExpiration().after(new Date());
+            TokenClaims claims = parseToken(token);
+            return claims.getEmail().equals(email) &&
+                   claims.getExpiration().after(new Date());
         } catch (JwtException e) {
             return false;
         }
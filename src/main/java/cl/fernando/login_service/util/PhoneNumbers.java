@@ -0,0 +1,48 @@
+package cl.fernando.login_service.util;
+
+/**
+ * Clave normalizada estilo E.164 ("+" y hasta 15 dígitos) para buscar por
+ * teléfono: código de país (solo sus dígitos), código de área y número, sin
+ * separadores. V3__phone_e164.sql hace el mismo cálculo para las filas
+ * existentes; si cambia aquí debe cambiar allá.
+ */
+public final class PhoneNumbers {
+
+	private static final int MAX_DIGITS = 15;
+
+	private PhoneNumbers() {
+	}
+
+	/** null si falta una parte, hay negativos o pasa de 15 dígitos. */
+	public static String toE164(String countrycode, Integer citycode, Long number) {
+		if (countrycode == null || citycode == null || number == null || citycode < 0 || number < 0) {
+			return null;
+		}
+		StringBuilder key = new StringBuilder(MAX_DIGITS + 1).append('+');
+		appendDigits(key, countrycode);
+		if (key.length() == 1) {
+			return null;
+		}
+		key.append(citycode.intValue()).append(number.longValue());
+		return key.length() <= MAX_DIGITS + 1 ? key.toString() : null;
+	}
+
+	/** Número escrito libremente ("+56 9 1234-5678"); null si no tiene dígitos o pasa de 15. */
+	public static String normalize(String phone) {
+		if (phone == null) {
+			return null;
+		}
+		StringBuilder key = new StringBuilder(MAX_DIGITS + 1).append('+');
+		appendDigits(key, phone);
+		return key.length() > 1 && key.length() <= MAX_DIGITS + 1 ? key.toString() : null;
+	}
+
+	private static void appendDigits(StringBuilder key, String value) {
+		for (int i = 0; i < value.length(); i++) {
+			char c = value.charAt(i);
+			if (c >= '0' && c <= '9') {
+				key.append(c);
+			}
+		}
+	}
+}
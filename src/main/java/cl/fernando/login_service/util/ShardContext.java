@@ -0,0 +1,41 @@
+package cl.fernando.login_service.util;
+
+import java.util.function.Supplier;
+
+/**
+ * Shard del hilo actual, leído por ShardRoutingDataSource al pedir una
+ * conexión. Debe fijarse antes de abrir la transacción: dentro de ella la
+ * conexión ya quedó tomada. Sin shard fijado se usa el primario.
+ */
+public final class ShardContext {
+
+	private static final ThreadLocal<String> CURRENT = new ThreadLocal<>();
+
+	private ShardContext() {
+	}
+
+	public static String current() {
+		return CURRENT.get();
+	}
+
+	public static <T> T callOn(String shard, Supplier<T> action) {
+		String previous = CURRENT.get();
+		CURRENT.set(shard);
+		try {
+			return action.get();
+		} finally {
+			if (previous == null) {
+				CURRENT.remove();
+			} else {
+				CURRENT.set(previous);
+			}
+		}
+	}
+
+	public static void runOn(String shard, Runnable action) {
+		callOn(shard, () -> {
+			action.run();
+			return null;
+		});
+	}
+}
@@ -0,0 +1,134 @@
+package cl.fernando.login_service.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Asigna cada email a un shard con hashing consistente: cada shard ocupa
+ * {@code virtualNodes} puntos de un anillo de 64 bits y el email pertenece al
+ * primer punto igual o mayor que su hash. Agregar un shard solo mueve las
+ * claves que caen en sus nuevos puntos (~1/N del total).
+ *
+ * Mientras se rebalancea se conserva el anillo anterior, para que las lecturas
+ * que no encuentran al usuario en su shard nuevo lo busquen donde estaba.
+ * El hash no lleva semilla: todos los nodos deben calcular el mismo dueño.
+ */
+@Slf4j
+public class ShardRouter {
+
+	private final int virtualNodes;
+	private volatile Ring current;
+	private volatile Ring previous;
+
+	public ShardRouter(List<String> shards, int virtualNodes) {
+		this.virtualNodes = virtualNodes;
+		this.current = new Ring(shards, virtualNodes);
+	}
+
+	public String shardFor(String email) {
+		return current.owner(hash(normalize(email)));
+	}
+
+	/** Dueño según el anillo anterior, o null si no hay un rebalanceo en curso. */
+	public String previousShardFor(String email) {
+		Ring ring = previous;
+		return ring != null ? ring.owner(hash(normalize(email))) : null;
+	}
+
+	public List<String> getShards() {
+		return current.shards;
+	}
+
+	public boolean isRebalancing() {
+		return previous != null;
+	}
+
+	public synchronized void beginRebalance(String newShard) {
+		if (previous != null) {
+			throw new IllegalStateException("Ya hay un rebalanceo en curso");
+		}
+		if (current.shards.contains(newShard)) {
+			throw new IllegalArgumentException("El shard ya existe: " + newShard);
+		}
+		List<String> shards = new ArrayList<>(current.shards);
+		shards.add(newShard);
+		previous = current;
+		current = new Ring(shards, virtualNodes);
+		log.info("Rebalanceo iniciado: shards {}", shards);
+	}
+
+	public synchronized void finishRebalance() {
+		previous = null;
+		log.info("Rebalanceo terminado: shards {}", current.shards);
+	}
+
+	/**
+	 * Adopta un anillo leído de la base. Los shards se agregan de a uno al
+	 * final, así que durante un rebalanceo el anillo anterior es el mismo sin
+	 * el último.
+	 */
+	public synchronized void adopt(List<String> shards, boolean rebalancing) {
+		previous = rebalancing ? new Ring(shards.subList(0, shards.size() - 1), virtualNodes) : null;
+		current = new Ring(shards, virtualNodes);
+	}
+
+	static String normalize(String email) {
+		return email.trim().toLowerCase(Locale.ROOT);
+	}
+
+	// FNV-1a de 64 bits con el mezclado final de MurmurHash3
+	static long hash(String key) {
+		long h = 0xcbf29ce484222325L;
+		for (int i = 0; i < key.length(); i++) {
+			h ^= key.charAt(i);
+			h *= 0x100000001b3L;
+		}
+		h ^= h >>> 33;
+		h *= 0xff51afd7ed558ccdL;
+		h ^= h >>> 33;
+		h *= 0xc4ceb9fe1a85ec53L;
+		h ^= h >>> 33;
+		return h;
+	}
+
+	/** Anillo inmutable: puntos ordenados y el shard de cada uno, búsqueda binaria. */
+	private static final class Ring {
+		private final List<String> shards;
+		private final long[] points;
+		private final String[] owners;
+
+		Ring(List<String> shards, int virtualNodes) {
+			if (shards.isEmpty()) {
+				throw new IllegalArgumentException("Se necesita al menos un shard");
+			}
+			this.shards = Collections.unmodifiableList(new ArrayList<>(shards));
+			long[][] entries = new long[shards.size() * virtualNodes][];
+			int n = 0;
+			for (int s = 0; s < shards.size(); s++) {
+				for (int v = 0; v < virtualNodes; v++) {
+					entries[n++] = new long[] { hash(shards.get(s) + "#" + v), s };
+				}
+			}
+			Arrays.sort(entries, (a, b) -> Long.compare(a[0], b[0]));
+			this.points = new long[entries.length];
+			this.owners = new String[entries.length];
+			for (int i = 0; i < entries.length; i++) {
+				points[i] = entries[i][0];
+				owners[i] = shards.get((int) entries[i][1]);
+			}
+		}
+
+		String owner(long hash) {
+			int index = Arrays.binarySearch(points, hash);
+			if (index < 0) {
+				index = -index - 1;
+			}
+			return owners[index == points.length ? 0 : index];
+		}
+	}
+}
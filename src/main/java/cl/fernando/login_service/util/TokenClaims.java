@@ -0,0 +1,14 @@
+package cl.fernando.login_service.util;
+
+import java.util.Date;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class TokenClaims {
+	private final String id;
+	private final String email;
+	private final Date expiration;
+}
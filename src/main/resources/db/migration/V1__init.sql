@@ -0,0 +1,25 @@
+create sequence phone_seq start with 1 increment by 50;
+
+create table user (
+    id varchar(255) not null,
+    name varchar(255),
+    email varchar(255),
+    password varchar(255),
+    created timestamp,
+    last_login timestamp,
+    is_active boolean not null,
+    primary key (id),
+    constraint uk_user_email unique (email)
+);
+
+create table phone (
+    id bigint not null,
+    number bigint,
+    citycode integer,
+    countrycode varchar(255),
+    user_id varchar(255),
+    primary key (id),
+    constraint fk_phone_user foreign key (user_id) references user (id)
+);
+
+create index idx_phone_user_id on phone (user_id);
@@ -0,0 +1,15 @@
+-- Refresh tokens opacos: solo se guarda el SHA-256 del token (clave primaria)
+create table refresh_token (
+    token_hash varchar(64) not null,
+    family_id varchar(36) not null,
+    user_id varchar(255) not null,
+    email varchar(255) not null,
+    created timestamp not null,
+    expires_at timestamp not null,
+    used boolean not null,
+    revoked boolean not null,
+    primary key (token_hash)
+);
+
+create index idx_refresh_token_family on refresh_token (family_id);
+create index idx_refresh_token_expires_at on refresh_token (expires_at);
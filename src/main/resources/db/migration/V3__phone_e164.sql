@@ -0,0 +1,14 @@
+-- Búsqueda por teléfono: clave normalizada '+' || país || área || número
+-- (PhoneNumbers.toE164). El índice incluye user_id para resolver el dueño
+-- sin leer la fila de phone.
+alter table phone add column e164 varchar(16);
+
+update phone
+   set e164 = '+' || regexp_replace(countrycode, '[^0-9]', '') || cast(citycode as varchar) || cast(number as varchar)
+ where countrycode is not null
+   and citycode >= 0
+   and number >= 0
+   and regexp_replace(countrycode, '[^0-9]', '') <> ''
+   and length(regexp_replace(countrycode, '[^0-9]', '') || cast(citycode as varchar) || cast(number as varchar)) <= 15;
+
+create index idx_phone_e164_user on phone (e164, user_id);
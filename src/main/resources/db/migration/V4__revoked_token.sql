@@ -0,0 +1,9 @@
+-- Access tokens revocados (jwt.denylist.shared): cada nodo relee las filas
+-- vigentes; las vencidas se borran porque el JWT ya no valida.
+create table revoked_token (
+    jti varchar(36) not null,
+    expires_at timestamp not null,
+    primary key (jti)
+);
+
+create index idx_revoked_token_expires_at on revoked_token (expires_at);
@@ -0,0 +1,23 @@
+-- Anillo de shards (sharding.enabled). Solo se usan las tablas del primario;
+-- sin filas el anillo es el de la configuración.
+create table shard_ring (
+    position int not null,
+    name varchar(64) not null,
+    primary key (position)
+);
+
+-- Una sola fila (id = 1): cada cambio del anillo sube version
+create table shard_state (
+    id int not null,
+    version bigint not null,
+    rebalancing boolean not null,
+    primary key (id)
+);
+
+-- Versión del anillo que usa cada nodo; se renueva cada sharding.refresh-interval-ms
+create table shard_node (
+    node_id varchar(36) not null,
+    ring_version bigint not null,
+    seen_at timestamp not null,
+    primary key (node_id)
+);
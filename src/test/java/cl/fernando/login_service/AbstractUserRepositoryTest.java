@@ -0,0 +1,104 @@
+package cl.fernando.login_service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+
+import cl.fernando.login_service.entity.Phone;
+import cl.fernando.login_service.entity.User;
+import cl.fernando.login_service.repository.UserRepository;
+
+/**
+ * Pruebas de UserRepository que se ejecutan contra cada almacenamiento
+ * soportado (ver subclases).
+ */
+abstract class AbstractUserRepositoryTest {
+
+	@Autowired
+	protected UserRepository userRepository;
+
+	@Test
+	void findsUserWithPhones() {
+		userRepository.insertAll(Collections.singletonList(user("phones@repo.cl", 2)));
+
+		User found = userRepository.findWithPhonesByEmail("phones@repo.cl").orElseThrow(IllegalStateException::new);
+
+		assertEquals(2, found.getPhones().size());
+		assertTrue(userRepository.existsByEmail("phones@repo.cl"));
+		assertFalse(userRepository.existsByEmail("nadie@repo.cl"));
+	}
+
+	@Test
+	void rejectsDuplicateEmail() {
+		userRepository.saveAndFlush(user("dup@repo.cl", 0));
+
+		assertThrows(DataIntegrityViolationException.class,
+				() -> userRepository.saveAndFlush(user("dup@repo.cl", 0)));
+	}
+
+	@Test
+	void findsExistingEmailsAndPagesByKey() {
+		List<User> users = new ArrayList<>();
+		for (int i = 0; i < 5; i++) {
+			users.add(user("page" + i + "@repo.cl", 1));
+		}
+		userRepository.insertAll(users);
+
+		assertEquals(Arrays.asList("page1@repo.cl", "page3@repo.cl"), sorted(userRepository.findExistingEmails(
+				Arrays.asList("page1@repo.cl", "page3@repo.cl", "otro@repo.cl"))));
+		assertEquals(Arrays.asList("page2@repo.cl", "page3@repo.cl"),
+				userRepository.findEmailsAfter("page1@repo.cl", PageRequest.of(0, 2)));
+	}
+
+	@Test
+	void findsOwnersByPhone() {
+		User first = user("phone1@repo.cl", 2);
+		User second = user("phone2@repo.cl", 1);
+		userRepository.insertAll(Arrays.asList(first, second));
+
+		List<User> owners = userRepository.findWithPhonesByE164("+5621000");
+
+		assertEquals(Arrays.asList("phone1@repo.cl", "phone2@repo.cl"), sorted(emails(owners)));
+		assertEquals(2, owners.stream().filter(u -> u.getEmail().equals("phone1@repo.cl")).findFirst()
+				.orElseThrow(IllegalStateException::new).getPhones().size());
+		assertEquals(1, userRepository.findWithPhonesByE164("+5621001").size());
+		assertTrue(userRepository.findWithPhonesByE164("+5621002").isEmpty());
+	}
+
+	private static List<String> emails(List<User> users) {
+		List<String> emails = new ArrayList<>();
+		users.forEach(user -> emails.add(user.getEmail()));
+		return emails;
+	}
+
+	private static List<String> sorted(List<String> values) {
+		List<String> copy = new ArrayList<>(values);
+		Collections.sort(copy);
+		return copy;
+	}
+
+	private static User user(String email, int phones) {
+		User user = new User();
+		user.setName("Repo");
+		user.setEmail(email);
+		user.setPassword("$2a$04$hash");
+		List<Phone> list = new ArrayList<>();
+		for (int i = 0; i < phones; i++) {
+			list.add(new Phone(null, 1000L + i, 2, "56", user));
+		}
+		user.setPhones(list);
+		return user;
+	}
+
+}
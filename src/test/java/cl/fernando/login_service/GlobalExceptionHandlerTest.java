@@ -0,0 +1,74 @@
+package cl.fernando.login_service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.TypeMismatchException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import cl.fernando.login_service.dto.ErrorDetail;
+import cl.fernando.login_service.dto.ErrorResponse;
+import cl.fernando.login_service.exception.ErrorBodyTemplates;
+import cl.fernando.login_service.exception.GlobalExceptionHandler;
+import cl.fernando.login_service.exception.InvalidEmailException;
+import cl.fernando.login_service.exception.InvalidTokenException;
+import cl.fernando.login_service.exception.TooManyAttemptsException;
+import cl.fernando.login_service.exception.UserAlreadyExistsException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class GlobalExceptionHandlerTest {
+
+	private final GlobalExceptionHandler handler = new GlobalExceptionHandler(new SimpleMeterRegistry());
+
+	@Test
+	void mapsExpectedFailuresToTheirStatus() {
+		assertEquals(HttpStatus.CONFLICT, handler.handleApi(new UserAlreadyExistsException()).getStatusCode());
+		assertEquals(HttpStatus.UNAUTHORIZED, handler.handleApi(new InvalidTokenException()).getStatusCode());
+		assertEquals(HttpStatus.UNPROCESSABLE_ENTITY, handler.handleApi(new InvalidEmailException()).getStatusCode());
+		assertEquals(HttpStatus.INTERNAL_SERVER_ERROR,
+				handler.handleRuntime(new IllegalStateException("bug")).getStatusCode());
+	}
+
+	@Test
+	void springMvcExceptionsKeepTheirStatus() {
+		assertEquals(HttpStatus.NOT_FOUND,
+				handler.handleResponseStatus(new ResponseStatusException(HttpStatus.NOT_FOUND)).getStatusCode());
+		assertEquals(HttpStatus.BAD_REQUEST, handler.handleTypeMismatch(
+				new TypeMismatchException("abc", Long.class)).getStatusCode());
+	}
+
+	@Test
+	void expectedFailuresCarryNoStackTrace() {
+		assertEquals(0, new UserAlreadyExistsException().getStackTrace().length);
+	}
+
+	@Test
+	void throttlingSetsRetryAfter() {
+		ResponseEntity<byte[]> response = handler.handleApi(new TooManyAttemptsException("Demasiados intentos", 1500));
+
+		assertEquals(HttpStatus.TOO_MANY_REQUESTS, response.getStatusCode());
+		assertEquals("2", response.getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+		assertNull(handler.handleApi(new InvalidTokenException()).getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+	}
+
+	@Test
+	void templateMatchesJacksonSerializationOfErrorResponse() throws Exception {
+		String timestamp = "2024-01-02T03:04:05.678Z";
+		String message = "Usuario ya existe: \"raro\"\\@test.cl ñandú";
+		ErrorResponse expected = new ErrorResponse(Collections.singletonList(new ErrorDetail(timestamp, 409, message)));
+
+		byte[] body = new ErrorBodyTemplates().render(409, message, timestamp);
+
+		assertEquals(new ObjectMapper().writeValueAsString(expected), new String(body, StandardCharsets.UTF_8));
+	}
+
+}
@@ -0,0 +1,125 @@
+package cl.fernando.login_service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import cl.fernando.login_service.util.JwtKeyRing;
+import cl.fernando.login_service.util.JwtUtil;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.Jwts;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class JwtKeyRingTest {
+
+	private static final String SECRET = "cNBYx5W7aP7Q7q6r2X3UoHd6x4o7t+fPgE7nVjJc3sY=";
+
+	@Test
+	void tokensCarryKidAndVerifyAfterRotationUntilEvicted() {
+		JwtKeyRing keyRing = new JwtKeyRing("ES256", "", "", 1);
+		JwtUtil jwtUtil = new JwtUtil(keyRing, 3600000, new SimpleMeterRegistry());
+
+		String token = jwtUtil.generateToken("juan@testssw.cl");
+		String kid = keyRing.getSigningKey().getKid();
+
+		keyRing.rotate();
+		assertNotEquals(kid, keyRing.getSigningKey().getKid());
+		assertEquals("juan@testssw.cl", jwtUtil.parseToken(token).getEmail());
+
+		// Firma, retenida y fuera del anillo
+		keyRing.rotate();
+		keyRing.rotate();
+		assertThrows(JwtException.class, () -> jwtUtil.parseToken(token));
+	}
+
+	@Test
+	void jwksPublishesStagedKeyBeforeItSigns() {
+		JwtKeyRing keyRing = new JwtKeyRing("ES256", "", "", 1);
+		String before = keyRing.getJwkSet().getJson();
+
+		keyRing.rotate();
+
+		String signingKid = keyRing.getSigningKey().getKid();
+		assertTrue(before.contains("\"kid\":\"" + signingKid + "\""));
+		assertTrue(before.contains("\"kty\":\"EC\""));
+		assertNotEquals(before, keyRing.getJwkSet().getJson());
+	}
+
+	@Test
+	void rejectsTokenSignedWithForeignKey() {
+		JwtUtil jwtUtil = new JwtUtil(new JwtKeyRing("ES256", "", "", 1), 3600000, new SimpleMeterRegistry());
+		String foreign = new JwtUtil(new JwtKeyRing("ES256", "", "", 1), 3600000, new SimpleMeterRegistry())
+				.generateToken("juan@testssw.cl");
+
+		assertThrows(JwtException.class, () -> jwtUtil.parseToken(foreign));
+	}
+
+	@Test
+	void reloadsPersistedKeys(@TempDir Path dir) {
+		JwtKeyRing first = new JwtKeyRing("ES256", "", dir.toString(), 1);
+		String token = new JwtUtil(first, 3600000, new SimpleMeterRegistry()).generateToken("juan@testssw.cl");
+
+		JwtKeyRing restarted = new JwtKeyRing("ES256", "", dir.toString(), 1);
+
+		assertEquals(first.getSigningKey().getKid(), restarted.getSigningKey().getKid());
+		assertEquals("juan@testssw.cl",
+				new JwtUtil(restarted, 3600000, new SimpleMeterRegistry()).parseToken(token).getEmail());
+	}
+
+	@Test
+	void rotatesByKeyAgeAcrossRestarts(@TempDir Path dir) throws Exception {
+		JwtKeyRing first = new JwtKeyRing("ES256", "", dir.toString(), 1);
+		String signing = first.getSigningKey().getKid();
+		first.refresh();
+		assertEquals(signing, first.getSigningKey().getKid());
+		String token = new JwtUtil(first, 3600000, new SimpleMeterRegistry()).generateToken("juan@testssw.cl");
+		first.close();
+		Thread.sleep(5);
+
+		// El reinicio no reinicia el plazo: la clave en espera ya cumplió el intervalo
+		JwtKeyRing restarted = new JwtKeyRing("ES256", "", dir.toString(), 1, false, 1);
+
+		assertNotEquals(signing, restarted.getSigningKey().getKid());
+		assertEquals("juan@testssw.cl",
+				new JwtUtil(restarted, 3600000, new SimpleMeterRegistry()).parseToken(token).getEmail());
+	}
+
+	@Test
+	void sharedDirectoryKeepsNodesOnTheSameKeys(@TempDir Path dir) {
+		JwtKeyRing rotator = new JwtKeyRing("ES256", "", dir.toString(), 1, true, 0);
+		JwtKeyRing follower = new JwtKeyRing("ES256", "", dir.toString(), 1, true, 86400000);
+		assertEquals(rotator.getSigningKey().getKid(), follower.getSigningKey().getKid());
+		assertEquals(rotator.getJwkSet().getJson(), follower.getJwkSet().getJson());
+		String token = new JwtUtil(follower, 3600000, new SimpleMeterRegistry()).generateToken("juan@testssw.cl");
+
+		// Solo rota el nodo cuyo intervalo venció; el otro toma las claves del directorio
+		follower.refresh();
+		String before = rotator.getSigningKey().getKid();
+		rotator.refresh();
+		follower.refresh();
+
+		assertNotEquals(before, rotator.getSigningKey().getKid());
+		assertEquals(rotator.getSigningKey().getKid(), follower.getSigningKey().getKid());
+		assertEquals(rotator.getJwkSet().getJson(), follower.getJwkSet().getJson());
+		assertEquals("juan@testssw.cl",
+				new JwtUtil(rotator, 3600000, new SimpleMeterRegistry()).parseToken(token).getEmail());
+	}
+
+	@Test
+	void hs256AcceptsLegacyTokensWithoutKid() {
+		JwtKeyRing keyRing = new JwtKeyRing("HS256", SECRET, "", 1);
+		JwtUtil jwtUtil = new JwtUtil(keyRing, 3600000, new SimpleMeterRegistry());
+		String legacy = Jwts.builder().setSubject("juan@testssw.cl")
+				.signWith(keyRing.getSigningKey().getKey()).compact();
+
+		assertEquals("juan@testssw.cl", jwtUtil.parseToken(legacy).getEmail());
+		assertFalse(keyRing.getJwkSet().getJson().contains("kid"));
+	}
+}
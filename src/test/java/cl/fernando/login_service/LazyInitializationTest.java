@@ -0,0 +1,43 @@
+package cl.fernando.login_service;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.test.context.ActiveProfiles;
+
+import cl.fernando.login_service.service.EmailIndex;
+import cl.fernando.login_service.service.LoginTracker;
+import cl.fernando.login_service.service.RefreshTokenService;
+import cl.fernando.login_service.service.TokenDenylist;
+import cl.fernando.login_service.service.UserServiceImpl;
+import cl.fernando.login_service.util.JwtKeyRing;
+
+@SpringBootTest(properties = "spring.main.lazy-initialization=true")
+@ActiveProfiles("test")
+public class LazyInitializationTest {
+
+	@Autowired
+	private ConfigurableApplicationContext context;
+
+	@Test
+	void warmUpAndScheduledBeansStartEagerly() {
+		ConfigurableListableBeanFactory beanFactory = context.getBeanFactory();
+
+		for (Class<?> type : new Class<?>[] { EmailIndex.class, TokenDenylist.class, LoginTracker.class,
+				JwtKeyRing.class, RefreshTokenService.class }) {
+			assertTrue(isCreated(beanFactory, type), type.getSimpleName());
+		}
+		assertFalse(isCreated(beanFactory, UserServiceImpl.class));
+	}
+
+	private static boolean isCreated(ConfigurableListableBeanFactory beanFactory, Class<?> type) {
+		String[] names = beanFactory.getBeanNamesForType(type, true, false);
+		return names.length == 1 && beanFactory.containsSingleton(names[0]);
+	}
+
+}
@@ -0,0 +1,48 @@
+package cl.fernando.login_service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Arrays;
+
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import cl.fernando.login_service.dto.PhoneRequest;
+import cl.fernando.login_service.dto.UserRequest;
+import cl.fernando.login_service.dto.UserResponse;
+import cl.fernando.login_service.service.UserService;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@ActiveProfiles("test")
+public class LoginQueryCountTest {
+
+	@Autowired
+	private UserService userService;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	@Test
+	void loginLoadsUserAndPhonesInOneQuery() {
+		UserResponse created = userService.createUser(new UserRequest("Conteo", "conteo@sql.cl", "Ab12cd34",
+				Arrays.asList(new PhoneRequest(11111111L, 2, "56"), new PhoneRequest(22222222L, 9, "56"))));
+		Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		statistics.clear();
+
+		UserResponse response = userService.login(created.getToken());
+
+		assertEquals(2, response.getPhones().size());
+		// un único SELECT con fetch join, sin carga diferida de phones ni escrituras
+		assertEquals(1, statistics.getQueryExecutionCount());
+		assertEquals(0, statistics.getCollectionFetchCount());
+		assertEquals(1, statistics.getPrepareStatementCount());
+		assertEquals(0, statistics.getEntityInsertCount());
+	}
+
+}
@@ -1,13 +1,30 @@
 package cl.fernando.login_service;
 
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
 import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import cl.fernando.login_service.dto.UserResponse;
+import cl.fernando.login_service.mapper.UserResponseSerializer;
+
 @SpringBootTest
 class LoginServiceApplicationTests {
 
+	@Autowired
+	private ObjectMapper objectMapper;
+
 	@Test
 	void contextLoads() {
 	}
 
+	@Test
+	void responsesUseSpecializedSerializer() throws Exception {
+		Object serializer = objectMapper.getSerializerProviderInstance().findValueSerializer(UserResponse.class);
+		assertTrue(serializer instanceof UserResponseSerializer);
+	}
+
 }
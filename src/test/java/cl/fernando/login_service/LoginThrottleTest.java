@@ -0,0 +1,91 @@
+package cl.fernando.login_service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import cl.fernando.login_service.exception.TooManyAttemptsException;
+import cl.fernando.login_service.service.LoginThrottle;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class LoginThrottleTest {
+
+	@Test
+	void limitsAttemptsPerIp() {
+		LoginThrottle throttle = new LoginThrottle(1024, 60000, 10, 60000, 5, new SimpleMeterRegistry());
+		for (int i = 0; i < 5; i++) {
+			throttle.acquire("user" + i + "@test.cl", "10.0.0.1");
+		}
+
+		TooManyAttemptsException ex = assertThrows(TooManyAttemptsException.class,
+				() -> throttle.acquire("otro@test.cl", "10.0.0.1"));
+		assertTrue(ex.getRetryAfterMillis() > 0);
+		// Otra IP no se ve afectada
+		throttle.acquire("otro@test.cl", "10.0.0.2");
+	}
+
+	@Test
+	void limitsFailuresPerEmailAcrossIps() {
+		LoginThrottle throttle = new LoginThrottle(1024, 60000, 3, 60000, 1000, new SimpleMeterRegistry());
+		for (int i = 0; i < 3; i++) {
+			throttle.acquire("victima@test.cl", "10.0.1." + i);
+			throttle.recordFailure("victima@test.cl", true);
+		}
+
+		TooManyAttemptsException ex = assertThrows(TooManyAttemptsException.class,
+				() -> throttle.acquire("victima@test.cl", "10.0.2.1"));
+		assertTrue(ex.getRetryAfterMillis() > 0 && ex.getRetryAfterMillis() <= 60000);
+		throttle.acquire("otra@test.cl", "10.0.2.1");
+	}
+
+	@Test
+	void unknownEmailsAreLimitedTheSameWay() {
+		LoginThrottle throttle = new LoginThrottle(1024, 60000, 3, 60000, 1000, new SimpleMeterRegistry());
+		for (int i = 0; i < 3; i++) {
+			throttle.recordFailure("no-existe@test.cl", false);
+		}
+
+		assertThrows(TooManyAttemptsException.class, () -> throttle.acquire("no-existe@test.cl", "10.0.3.1"));
+	}
+
+	@Test
+	void manyFailingEmailsDoNotLockOutOthers() {
+		LoginThrottle throttle = new LoginThrottle(64, 60000, 3, 60000, 1000000, new SimpleMeterRegistry());
+		// Con el sketch de 64 franjas esto saturaba todas las celdas
+		for (int i = 0; i < 20000; i++) {
+			throttle.recordFailure("random" + i + "@test.cl", false);
+			throttle.recordFailure("cuenta" + (i % 500) + "@test.cl", true);
+		}
+
+		throttle.acquire("inocente@test.cl", "10.0.4.1");
+		throttle.acquire("random1@test.cl", "10.0.4.1");
+	}
+
+	@Test
+	void countsConcurrentAttemptsWithoutLosingUpdates() throws InterruptedException {
+		LoginThrottle throttle = new LoginThrottle(1024, 60000, 10, 60000, 4000, new SimpleMeterRegistry());
+		AtomicInteger rejected = new AtomicInteger();
+		ExecutorService pool = Executors.newFixedThreadPool(8);
+		for (int i = 0; i < 5000; i++) {
+			pool.execute(() -> {
+				try {
+					throttle.acquire("concurrente@test.cl", "10.0.0.9");
+				} catch (TooManyAttemptsException e) {
+					rejected.incrementAndGet();
+				}
+			});
+		}
+		pool.shutdown();
+		assertTrue(pool.awaitTermination(10, TimeUnit.SECONDS));
+
+		// Exactamente 4000 admitidos: ningún incremento se pierde bajo contención
+		assertEquals(1000, rejected.get());
+	}
+}
@@ -0,0 +1,88 @@
+package cl.fernando.login_service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.test.context.ActiveProfiles;
+
+import cl.fernando.login_service.dto.UserRequest;
+import cl.fernando.login_service.dto.UserResponse;
+import cl.fernando.login_service.entity.User;
+import cl.fernando.login_service.repository.UserRepository;
+import cl.fernando.login_service.service.LoginTracker;
+import cl.fernando.login_service.service.UserService;
+
+@SpringBootTest
+@ActiveProfiles("test")
+public class LoginTrackerTest {
+
+	@Autowired
+	private UserService userService;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private LoginTracker loginTracker;
+
+	@Test
+	void coalescesLoginsAndFlushesLatest() {
+		userService.createUser(new UserRequest("Tracker", "tracker@login.cl", "Ab12cd34", null));
+		User user = userRepository.findByEmail("tracker@login.cl").orElseThrow(IllegalStateException::new);
+		LocalDateTime first = LocalDateTime.now().plusMinutes(1).truncatedTo(ChronoUnit.MILLIS);
+		LocalDateTime second = first.plusMinutes(1);
+
+		loginTracker.recordLogin(user.getId(), second);
+		loginTracker.recordLogin(user.getId(), first);
+		assertEquals(1, loginTracker.getPendingCount());
+
+		loginTracker.flush();
+
+		assertEquals(0, loginTracker.getPendingCount());
+		assertEquals(second, userRepository.findById(user.getId()).orElseThrow(IllegalStateException::new).getLastLogin());
+	}
+
+	@Test
+	void flushesPendingLoginsWhenTheContextStops(@TempDir Path dir) throws Exception {
+		String url = "jdbc:h2:file:" + dir.resolve("tracker").toAbsolutePath() + ";DB_CLOSE_ON_EXIT=FALSE";
+		LocalDateTime lastLogin;
+		try (ConfigurableApplicationContext context = new SpringApplicationBuilder(LoginServiceApplication.class)
+				.web(WebApplicationType.NONE)
+				.profiles("test")
+				// sin flush periódico: solo queda el del apagado
+				.run("--spring.datasource.url=" + url, "--users.login-tracker.flush-interval-ms=3600000")) {
+			UserService service = context.getBean(UserService.class);
+			UserResponse created = service.createUser(new UserRequest("Apagado", "apagado@login.cl", "Ab12cd34", null));
+			lastLogin = service.login(created.getToken()).getLastLogin();
+			assertEquals(1, context.getBean(LoginTracker.class).getPendingCount());
+		}
+
+		try (Connection connection = DriverManager.getConnection(url, "sa", "");
+				PreparedStatement select = connection.prepareStatement("select last_login from user where email = ?")) {
+			select.setString(1, "apagado@login.cl");
+			try (ResultSet rs = select.executeQuery()) {
+				rs.next();
+				// H2 redondea a microsegundos
+				Duration drift = Duration.between(lastLogin, rs.getTimestamp(1).toLocalDateTime()).abs();
+				assertTrue(drift.toMillis() < 1, "last_login no guardado: " + drift);
+			}
+		}
+	}
+
+}
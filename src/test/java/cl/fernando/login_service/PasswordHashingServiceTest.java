@@ -0,0 +1,112 @@
+package cl.fernando.login_service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import cl.fernando.login_service.exception.ServiceBusyException;
+import cl.fernando.login_service.service.PasswordHashingService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class PasswordHashingServiceTest {
+
+	@Test
+	void encodesWithConfiguredStrength() {
+		PasswordHashingService hashing = new PasswordHashingService(1, 4, 10000, 5, false, 250, new SimpleMeterRegistry());
+
+		String hash = hashing.encode("Ab12cd34");
+
+		assertTrue(hash.startsWith("{bcrypt}$2a$05$"));
+		assertTrue(new BCryptPasswordEncoder().matches("Ab12cd34", hash.substring("{bcrypt}".length())));
+		assertTrue(hashing.matches("Ab12cd34", hash));
+		assertEquals(1, hashing.getHashCount());
+		assertTrue(hashing.getMaxHashMillis() > 0);
+		hashing.shutdown();
+	}
+
+	@Test
+	void rejectsWhenQueueIsFull() throws Exception {
+		PasswordHashingService hashing = new PasswordHashingService(1, 1, 30000, 13, false, 250, new SimpleMeterRegistry());
+		ExecutorService callers = Executors.newFixedThreadPool(2);
+		try {
+			// un hash en curso y otro esperando en la cola
+			callers.submit(() -> hashing.encode("Ab12cd34"));
+			callers.submit(() -> hashing.encode("Ab12cd34"));
+			long deadline = System.currentTimeMillis() + 10000;
+			while ((hashing.getActiveCount() < 1 || hashing.getQueueDepth() < 1)
+					&& System.currentTimeMillis() < deadline) {
+				Thread.sleep(5);
+			}
+
+			assertThrows(ServiceBusyException.class, () -> hashing.encode("Ab12cd34"));
+		} finally {
+			callers.shutdownNow();
+			callers.awaitTermination(5, TimeUnit.SECONDS);
+			hashing.shutdown();
+		}
+	}
+
+	@Test
+	void calibrationPicksCostWithinBounds() {
+		PasswordHashingService hashing = new PasswordHashingService(1, 4, 10000, 10, true, 20, new SimpleMeterRegistry());
+
+		assertTrue(hashing.getStrength() >= 4 && hashing.getStrength() <= 16);
+		hashing.shutdown();
+	}
+
+	@Test
+	void acceptsLegacyAndWeakerHashesAndFlagsThemForRehash() {
+		PasswordHashingService hashing = new PasswordHashingService(1, 4, 10000, 6, false, 250, new SimpleMeterRegistry());
+		String legacy = new BCryptPasswordEncoder(6).encode("Ab12cd34");
+		String weaker = "{bcrypt}" + new BCryptPasswordEncoder(4).encode("Ab12cd34");
+
+		assertTrue(hashing.matches("Ab12cd34", legacy));
+		assertTrue(hashing.matches("Ab12cd34", weaker));
+		assertTrue(hashing.needsRehash(legacy));
+		assertTrue(hashing.needsRehash(weaker));
+		assertFalse(hashing.needsRehash(hashing.encode("Ab12cd34")));
+		hashing.shutdown();
+	}
+
+	@Test
+	void encodesWithArgon2AndPbkdf2AndMigratesBetweenThem() {
+		PasswordHashingService argon2 = new PasswordHashingService(1, 4, 10000, PasswordHashingService.ARGON2,
+				4, false, 250, 1000, 1024, 1, 1, new SimpleMeterRegistry());
+		PasswordHashingService pbkdf2 = new PasswordHashingService(1, 4, 10000, PasswordHashingService.PBKDF2,
+				4, false, 250, 1000, 1024, 1, 1, new SimpleMeterRegistry());
+
+		String argon2Hash = argon2.encode("Ab12cd34");
+		String pbkdf2Hash = pbkdf2.encode("Ab12cd34");
+
+		assertTrue(argon2Hash.startsWith("{argon2}$argon2id$"));
+		assertTrue(pbkdf2Hash.startsWith("{pbkdf2}"));
+		assertTrue(argon2.matches("Ab12cd34", pbkdf2Hash));
+		assertFalse(argon2.matches("Zz99yy88", argon2Hash));
+		assertTrue(argon2.needsRehash(pbkdf2Hash));
+		assertFalse(argon2.needsRehash(argon2Hash));
+		argon2.shutdown();
+		pbkdf2.shutdown();
+	}
+
+	@Test
+	void rehashesAsynchronously() throws Exception {
+		PasswordHashingService hashing = new PasswordHashingService(1, 4, 10000, 5, false, 250, new SimpleMeterRegistry());
+		CompletableFuture<String> rehashed = new CompletableFuture<>();
+
+		hashing.rehashAsync("Ab12cd34", rehashed::complete);
+
+		String hash = rehashed.get(10, TimeUnit.SECONDS);
+		assertTrue(hashing.matches("Ab12cd34", hash));
+		hashing.shutdown();
+	}
+
+}
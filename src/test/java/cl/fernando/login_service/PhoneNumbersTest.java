@@ -0,0 +1,81 @@
+package cl.fernando.login_service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import cl.fernando.login_service.entity.Phone;
+import cl.fernando.login_service.util.PhoneNumbers;
+
+public class PhoneNumbersTest {
+
+	@Test
+	void buildsKeyFromParts() {
+		assertEquals("+56912345678", PhoneNumbers.toE164("56", 9, 12345678L));
+		assertEquals("+56912345678", PhoneNumbers.toE164("+56", 9, 12345678L));
+		assertNull(PhoneNumbers.toE164(null, 9, 12345678L));
+		assertNull(PhoneNumbers.toE164("+", 9, 12345678L));
+		assertNull(PhoneNumbers.toE164("56", -1, 12345678L));
+		assertNull(PhoneNumbers.toE164("56", 9, 1234567890123L));
+	}
+
+	@Test
+	void phoneKeepsKeyInSyncWithItsParts() {
+		Phone phone = new Phone(null, 12345678L, 2, "56", null);
+		assertEquals("+56212345678", phone.getE164());
+
+		phone.setNumber(87654321L);
+		phone.setCitycode(9);
+		phone.setCountrycode("+1");
+		assertEquals("+1987654321", phone.getE164());
+		phone.setCountrycode(null);
+		assertNull(phone.getE164());
+	}
+
+	@Test
+	void normalizesFreeFormNumber() {
+		assertEquals("+56912345678", PhoneNumbers.normalize("+56 9 1234-5678"));
+		assertEquals("+56912345678", PhoneNumbers.normalize("(56) 9 1234 5678"));
+		assertNull(PhoneNumbers.normalize("sin número"));
+		assertNull(PhoneNumbers.normalize("+56 9 1234 5678 9012 34"));
+	}
+
+	// V3 calcula en SQL la misma clave para las filas que ya existían
+	@Test
+	void migrationBackfillMatchesJava() {
+		DriverManagerDataSource dataSource = new DriverManagerDataSource(
+				"jdbc:h2:mem:e164-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", "");
+		Flyway.configure().dataSource(dataSource).target("2").load().migrate();
+		JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+		jdbc.update("insert into user (id, email, is_active) values ('u1', 'e164@repo.cl', true)");
+		List<Object[]> phones = Arrays.asList(
+				new Object[] { 12345678L, 9, "56" },
+				new Object[] { 12345678L, 9, "+56" },
+				new Object[] { 12345678L, 9, null },
+				new Object[] { 12345678L, 9, "+" },
+				new Object[] { 12345678L, -1, "56" },
+				new Object[] { 1234567890123L, 9, "56" },
+				new Object[] { 123456789012L, 9, "5" });
+		for (int i = 0; i < phones.size(); i++) {
+			Object[] phone = phones.get(i);
+			jdbc.update("insert into phone (id, number, citycode, countrycode, user_id) values (?, ?, ?, ?, 'u1')",
+					i, phone[0], phone[1], phone[2]);
+		}
+
+		Flyway.configure().dataSource(dataSource).load().migrate();
+
+		for (int i = 0; i < phones.size(); i++) {
+			Object[] phone = phones.get(i);
+			assertEquals(PhoneNumbers.toE164((String) phone[2], (Integer) phone[1], (Long) phone[0]),
+					jdbc.queryForObject("select e164 from phone where id = ?", String.class, i), "fila " + i);
+		}
+	}
+}
@@ -0,0 +1,65 @@
+package cl.fernando.login_service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import cl.fernando.login_service.dto.TokenResponse;
+import cl.fernando.login_service.exception.InvalidRefreshTokenException;
+import cl.fernando.login_service.service.RefreshTokenService;
+import cl.fernando.login_service.util.JwtUtil;
+
+@SpringBootTest
+@ActiveProfiles("test")
+public class RefreshTokenServiceTest {
+
+	@Autowired
+	private RefreshTokenService refreshTokenService;
+
+	@Autowired
+	private JwtUtil jwtUtil;
+
+	@Test
+	void rotatesAndIssuesAccessToken() {
+		String refreshToken = refreshTokenService.issue("user-1", "rota@refresh.cl");
+
+		TokenResponse rotated = refreshTokenService.rotate(refreshToken);
+
+		assertEquals("rota@refresh.cl", jwtUtil.parseToken(rotated.getToken()).getEmail());
+		assertNotEquals(refreshToken, rotated.getRefreshToken());
+		refreshTokenService.rotate(rotated.getRefreshToken());
+	}
+
+	@Test
+	void reuseRevokesWholeFamily() {
+		String first = refreshTokenService.issue("user-2", "reuso@refresh.cl");
+		String second = refreshTokenService.rotate(first).getRefreshToken();
+
+		// El token ya rotado se presenta otra vez: se revoca también su sucesor
+		assertThrows(InvalidRefreshTokenException.class, () -> refreshTokenService.rotate(first));
+		assertThrows(InvalidRefreshTokenException.class, () -> refreshTokenService.rotate(second));
+	}
+
+	@Test
+	void rejectsUnknownToken() {
+		assertThrows(InvalidRefreshTokenException.class, () -> refreshTokenService.rotate("no-existe"));
+		assertThrows(InvalidRefreshTokenException.class, () -> refreshTokenService.rotate(""));
+	}
+
+	@Test
+	void logoutRevokesOnlyTheOwnersFamily() {
+		String token = refreshTokenService.issue("user-3", "salida@refresh.cl");
+
+		refreshTokenService.revoke(token, "otro@refresh.cl");
+		String next = refreshTokenService.rotate(token).getRefreshToken();
+		refreshTokenService.revoke(next, "salida@refresh.cl");
+
+		assertThrows(InvalidRefreshTokenException.class, () -> refreshTokenService.rotate(next));
+	}
+
+}
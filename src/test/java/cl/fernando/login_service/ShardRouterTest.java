@@ -0,0 +1,70 @@
+package cl.fernando.login_service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import cl.fernando.login_service.util.ShardRouter;
+
+public class ShardRouterTest {
+
+	private static final int KEYS = 30000;
+
+	@Test
+	void spreadsEmailsEvenly() {
+		ShardRouter router = new ShardRouter(Arrays.asList("s0", "s1", "s2"), 160);
+		Map<String, Integer> counts = new HashMap<>();
+		for (int i = 0; i < KEYS; i++) {
+			counts.merge(router.shardFor("user" + i + "@shard.cl"), 1, Integer::sum);
+		}
+
+		assertEquals(3, counts.size());
+		for (int count : counts.values()) {
+			assertTrue(Math.abs(count - KEYS / 3) < KEYS / 3 * 0.2, "reparto desbalanceado: " + counts);
+		}
+	}
+
+	@Test
+	void routesByNormalizedEmail() {
+		ShardRouter router = new ShardRouter(Arrays.asList("s0", "s1", "s2"), 160);
+
+		assertEquals(router.shardFor("ana@shard.cl"), router.shardFor(" Ana@Shard.CL"));
+	}
+
+	@Test
+	void addingShardOnlyMovesKeysToIt() {
+		ShardRouter router = new ShardRouter(Arrays.asList("s0", "s1", "s2"), 160);
+		String[] before = new String[KEYS];
+		for (int i = 0; i < KEYS; i++) {
+			before[i] = router.shardFor("user" + i + "@shard.cl");
+		}
+		assertNull(router.previousShardFor("user0@shard.cl"));
+
+		router.beginRebalance("s3");
+
+		int moved = 0;
+		for (int i = 0; i < KEYS; i++) {
+			String email = "user" + i + "@shard.cl";
+			String owner = router.shardFor(email);
+			assertEquals(before[i], router.previousShardFor(email));
+			if (!owner.equals(before[i])) {
+				assertEquals("s3", owner);
+				moved++;
+			}
+		}
+		// ~1/4 de las claves pasa al shard nuevo
+		assertTrue(moved > KEYS / 4 * 0.8 && moved < KEYS / 4 * 1.2, "movidas: " + moved);
+
+		router.finishRebalance();
+		assertFalse(router.isRebalancing());
+		assertNull(router.previousShardFor("user0@shard.cl"));
+	}
+
+}
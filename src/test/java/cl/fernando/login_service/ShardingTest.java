@@ -0,0 +1,162 @@
+package cl.fernando.login_service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import cl.fernando.login_service.config.ShardRoutingDataSource;
+import cl.fernando.login_service.dto.PhoneRequest;
+import cl.fernando.login_service.dto.ShardRequest;
+import cl.fernando.login_service.dto.UserRequest;
+import cl.fernando.login_service.dto.UserResponse;
+import cl.fernando.login_service.entity.User;
+import cl.fernando.login_service.exception.UserAlreadyExistsException;
+import cl.fernando.login_service.exception.ValidationException;
+import cl.fernando.login_service.repository.UserRepository;
+import cl.fernando.login_service.service.ShardManager;
+import cl.fernando.login_service.service.UserServiceImpl;
+import cl.fernando.login_service.util.ShardRouter;
+
+// Tres bases H2 en memoria hacen de shards: dos al arrancar y una declarada inactiva que se agrega en caliente
+@SpringBootTest(properties = {
+		"sharding.enabled=true",
+		"sharding.rebalance-batch-size=7",
+		"sharding.refresh-interval-ms=200",
+		"users.admin.enabled=true",
+		"users.admin.token=secreto-admin",
+		"sharding.shards[0].name=s0",
+		"sharding.shards[0].url=jdbc:h2:mem:shard0;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+		"sharding.shards[0].username=sa",
+		"sharding.shards[1].name=s1",
+		"sharding.shards[1].url=jdbc:h2:mem:shard1;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+		"sharding.shards[1].username=sa",
+		"sharding.shards[2].name=s2",
+		"sharding.shards[2].url=jdbc:h2:mem:shard2;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+		"sharding.shards[2].username=sa",
+		"sharding.shards[2].active=false" })
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@DirtiesContext
+public class ShardingTest {
+
+	private static final int USERS = 30;
+
+	@Autowired
+	private UserServiceImpl userService;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private ShardRouter router;
+
+	@Autowired
+	private ShardRoutingDataSource dataSource;
+
+	@Autowired
+	private ShardManager shardManager;
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Test
+	void shardAdminRequiresAdminToken() throws Exception {
+		mockMvc.perform(get("/admin/shards"))
+				.andExpect(status().isUnauthorized());
+		mockMvc.perform(get("/admin/shards").header("X-Admin-Token", "secreto-admin"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.shards[0]").value("s0"));
+	}
+
+	@Test
+	void routesUsersAndRebalancesOnlineWhenAddingShard() throws Exception {
+		List<String> emails = new ArrayList<>();
+		for (int i = 0; i < USERS; i++) {
+			String email = "shard" + i + "@reparto.cl";
+			emails.add(email);
+			userService.createUser(new UserRequest("Shard " + i, email, "Ab12cd34",
+					Collections.singletonList(new PhoneRequest(40000000L + i, 2, "56"))));
+		}
+		for (String email : emails) {
+			assertStoredOnlyOn(router.shardFor(email), email);
+		}
+		assertThrows(UserAlreadyExistsException.class, () -> userService.createUser(
+				new UserRequest("Dup", "shard3@reparto.cl", "Ab12cd34", Collections.emptyList())));
+		assertEquals(USERS, userRepository.findExistingEmails(emails).size());
+		assertEquals(USERS, userRepository.count());
+
+		assertEquals(Arrays.asList("s0", "s1"), router.getShards());
+		// Solo el siguiente shard declarado, por nombre
+		assertThrows(ValidationException.class, () -> shardManager.addShard(new ShardRequest("s9")));
+
+		// Otro nodo vivo que todavía usa el anillo anterior: no se mueve nada hasta que lo adopte
+		JdbcTemplate primary = new JdbcTemplate(dataSource.getShard("s0"));
+		primary.update("insert into shard_node (node_id, ring_version, seen_at) values ('otro-nodo', 0, ?)",
+				new Timestamp(System.currentTimeMillis()));
+		CompletableFuture<Long> rebalance = shardManager.addShard(new ShardRequest("s2"));
+		assertTrue(router.isRebalancing());
+		long pending = emails.stream().filter(email -> router.shardFor(email).equals("s2")).count();
+		assertTrue(pending > 0);
+		Thread.sleep(500);
+		assertFalse(rebalance.isDone());
+		for (String email : emails) {
+			assertStoredOnlyOn(router.previousShardFor(email), email);
+			assertTrue(userRepository.existsByEmail(email));
+		}
+		UserResponse login = userService.loginWithPassword(emails.get(0), "Ab12cd34", "127.0.0.1");
+		assertNotNull(login.getToken());
+
+		long version = primary.queryForObject("select version from shard_state where id = 1", Long.class);
+		primary.update("update shard_node set ring_version = ? where node_id = 'otro-nodo'", version);
+		long moved = rebalance.get(30, TimeUnit.SECONDS);
+
+		assertEquals(pending, moved);
+		assertFalse(router.isRebalancing());
+		for (String email : emails) {
+			assertStoredOnlyOn(router.shardFor(email), email);
+			User user = userRepository.findWithPhonesByEmail(email).orElseThrow(IllegalStateException::new);
+			assertEquals(1, user.getPhones().size());
+		}
+		assertEquals(USERS, userRepository.findEmailsAfter("", PageRequest.of(0, 100)).size());
+		// El anillo queda guardado para reinicios y demás nodos
+		assertEquals(Arrays.asList("s0", "s1", "s2"),
+				primary.queryForList("select name from shard_ring order by position", String.class));
+		assertFalse(primary.queryForObject("select rebalancing from shard_state where id = 1", Boolean.class));
+	}
+
+	private void assertStoredOnlyOn(String owner, String email) {
+		for (String shard : router.getShards()) {
+			JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource.getShard(shard));
+			Integer users = jdbcTemplate.queryForObject("select count(*) from user where email = ?", Integer.class, email);
+			Integer phones = jdbcTemplate.queryForObject(
+					"select count(*) from phone p join user u on p.user_id = u.id where u.email = ?", Integer.class, email);
+			int expected = shard.equals(owner) ? 1 : 0;
+			assertEquals(expected, users, email + " en " + shard);
+			assertEquals(expected, phones, email + " en " + shard);
+		}
+	}
+
+}
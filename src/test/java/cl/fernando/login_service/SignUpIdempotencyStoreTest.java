@@ -0,0 +1,89 @@
+package cl.fernando.login_service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import cl.fernando.login_service.dto.UserRequest;
+import cl.fernando.login_service.dto.UserResponse;
+import cl.fernando.login_service.exception.IdempotencyKeyConflictException;
+import cl.fernando.login_service.exception.ServiceBusyException;
+import cl.fernando.login_service.service.SignUpIdempotencyStore;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class SignUpIdempotencyStoreTest {
+
+	private final SignUpIdempotencyStore store = new SignUpIdempotencyStore(100, Duration.ofMinutes(5),
+			new SimpleMeterRegistry());
+	private final UserRequest request = new UserRequest("Juan", "juan@testssw.cl", "Ab12cd34", null);
+
+	@Test
+	void replayReturnsOriginalResponseWithoutRunningAgain() throws Exception {
+		AtomicInteger calls = new AtomicInteger();
+		UserResponse original = new UserResponse("id-1", "Juan", "juan@testssw.cl", "token");
+
+		UserResponse first = store.execute("clave-1", request, () -> {
+			calls.incrementAndGet();
+			return CompletableFuture.completedFuture(original);
+		}).get();
+		UserResponse retry = store.execute("clave-1", request, () -> {
+			calls.incrementAndGet();
+			return CompletableFuture.completedFuture(new UserResponse());
+		}).get();
+
+		assertSame(original, first);
+		assertSame(original, retry);
+		assertEquals(1, calls.get());
+	}
+
+	@Test
+	void concurrentDuplicateJoinsInFlightSignUp() throws Exception {
+		CompletableFuture<UserResponse> inFlight = new CompletableFuture<>();
+		AtomicInteger calls = new AtomicInteger();
+
+		CompletableFuture<UserResponse> first = store.execute("clave-2", request, () -> {
+			calls.incrementAndGet();
+			return inFlight;
+		});
+		CompletableFuture<UserResponse> duplicate = store.execute("clave-2", request, () -> {
+			calls.incrementAndGet();
+			return new CompletableFuture<>();
+		});
+		assertFalse(duplicate.isDone());
+
+		UserResponse response = new UserResponse("id-2", "Juan", "juan@testssw.cl", "token");
+		inFlight.complete(response);
+
+		assertSame(response, first.get());
+		assertSame(response, duplicate.get());
+		assertEquals(1, calls.get());
+	}
+
+	@Test
+	void keyReusedWithDifferentRequestIsRejected() {
+		store.execute("clave-3", request, () -> CompletableFuture.completedFuture(new UserResponse()));
+		UserRequest other = new UserRequest("Juan", "juan@testssw.cl", "Zz99yy88", null);
+
+		assertThrows(IdempotencyKeyConflictException.class,
+				() -> store.execute("clave-3", other, () -> CompletableFuture.completedFuture(new UserResponse())));
+	}
+
+	@Test
+	void failedSignUpReleasesKey() throws Exception {
+		assertThrows(ServiceBusyException.class, () -> store.execute("clave-4", request, () -> {
+			throw new ServiceBusyException("Servicio ocupado, reintente más tarde");
+		}));
+
+		UserResponse response = new UserResponse("id-4", "Juan", "juan@testssw.cl", "token");
+		assertSame(response, store.execute("clave-4", request,
+				() -> CompletableFuture.completedFuture(response)).get());
+	}
+
+}
@@ -0,0 +1,122 @@
+package cl.fernando.login_service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Date;
+import java.util.List;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import cl.fernando.login_service.service.TokenDenylist;
+
+public class TokenDenylistTest {
+
+	@TempDir
+	Path dir;
+
+	@Test
+	void survivesRestartAndDropsExpiredEntries() throws Exception {
+		Path file = dir.resolve("revoked.log");
+		TokenDenylist denylist = new TokenDenylist(file.toString());
+		denylist.load();
+		denylist.revoke("vigente", new Date(System.currentTimeMillis() + 60000));
+		denylist.revoke("expirado", new Date(System.currentTimeMillis() - 1000));
+		denylist.close();
+
+		TokenDenylist reloaded = new TokenDenylist(file.toString());
+		reloaded.load();
+
+		assertTrue(reloaded.isRevoked("vigente"));
+		assertFalse(reloaded.isRevoked("expirado"));
+		// al arrancar el archivo se compacta a las entradas vigentes
+		assertEquals(1, Files.readAllLines(file, StandardCharsets.UTF_8).size());
+		reloaded.close();
+	}
+
+	@Test
+	void skipsTornLineLeftByCrash() throws Exception {
+		Path file = dir.resolve("revoked.log");
+		long expiresAt = System.currentTimeMillis() + 60000;
+		Files.write(file, ("vigente " + expiresAt + "\ncortado 17abc\notro \n").getBytes(StandardCharsets.UTF_8));
+
+		TokenDenylist denylist = new TokenDenylist(file.toString());
+		denylist.load();
+
+		assertTrue(denylist.isRevoked("vigente"));
+		assertFalse(denylist.isRevoked("cortado"));
+		assertEquals(1, Files.readAllLines(file, StandardCharsets.UTF_8).size());
+		denylist.close();
+	}
+
+	@Test
+	void keepsAppendingAfterFailedCompaction() throws Exception {
+		Path file = dir.resolve("revoked.log");
+		TokenDenylist denylist = new TokenDenylist(file.toString());
+		denylist.load();
+		// Un directorio en el lugar del .tmp hace fallar la compactación
+		Files.createDirectories(dir.resolve("revoked.log.tmp"));
+		Files.write(dir.resolve("revoked.log.tmp").resolve("x"), new byte[0]);
+		for (int i = 0; i < 1100; i++) {
+			denylist.revoke("t" + i, new Date(System.currentTimeMillis() - 1));
+		}
+		denylist.purge();
+		Date expiration = new Date(System.currentTimeMillis() + 60000);
+		denylist.revoke("despues", expiration);
+		denylist.close();
+
+		List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+		assertEquals("despues " + expiration.getTime(), lines.get(lines.size() - 1));
+	}
+
+	@Test
+	void purgeRemovesExpiredEntries() {
+		TokenDenylist denylist = new TokenDenylist("");
+		denylist.revoke("a", new Date(System.currentTimeMillis() - 1));
+		denylist.revoke("b", new Date(System.currentTimeMillis() + 60000));
+
+		denylist.purge();
+
+		assertEquals(1, denylist.size());
+		assertFalse(denylist.isRevoked("a"));
+		assertFalse(denylist.isRevoked(null));
+	}
+
+	@Test
+	void sharedRevocationsReachOtherNodes() {
+		DriverManagerDataSource dataSource = new DriverManagerDataSource(
+				"jdbc:h2:mem:denylist-compartida;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE", "sa", "");
+		Flyway.configure().dataSource(dataSource).load().migrate();
+		JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+		TokenDenylist nodeA = new TokenDenylist("", true, jdbcTemplate);
+		TokenDenylist nodeB = new TokenDenylist("", true, jdbcTemplate);
+		nodeA.load();
+		nodeB.load();
+
+		nodeA.revoke("logout-en-a", new Date(System.currentTimeMillis() + 60000));
+		nodeA.revoke("logout-en-a", new Date(System.currentTimeMillis() + 60000));
+		nodeA.revoke("vencido", new Date(System.currentTimeMillis() - 1000));
+		assertFalse(nodeB.isRevoked("logout-en-a"));
+
+		nodeB.refresh();
+		assertTrue(nodeB.isRevoked("logout-en-a"));
+		assertFalse(nodeB.isRevoked("vencido"));
+
+		// Un nodo que arranca después también las ve
+		TokenDenylist nodeC = new TokenDenylist("", true, jdbcTemplate);
+		nodeC.load();
+		assertTrue(nodeC.isRevoked("logout-en-a"));
+
+		nodeB.purge();
+		assertEquals(1, jdbcTemplate.queryForObject("select count(*) from revoked_token", Integer.class));
+	}
+
+}
@@ -0,0 +1,54 @@
+package cl.fernando.login_service;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+@SpringBootTest(properties = { "users.admin.enabled=true", "users.admin.token=secreto-admin" })
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+public class UserAdminControllerWebTest {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Test
+	void requiresAdminToken() throws Exception {
+		mockMvc.perform(get("/admin/users/export"))
+				.andExpect(status().isUnauthorized());
+		mockMvc.perform(get("/admin/users/export").header("X-Admin-Token", "otro"))
+				.andExpect(status().isUnauthorized());
+		mockMvc.perform(get("/admin/users/export").header("X-Admin-Token", "secreto-admin"))
+				.andExpect(status().isOk());
+	}
+
+	@Test
+	void batchSignUpRequiresAdminToken() throws Exception {
+		String batch = "[{\"name\":\"Lote\",\"email\":\"uno@lote-admin.cl\",\"password\":\"Ab12cd34\",\"phones\":[]},"
+				+ "{\"name\":\"Lote\",\"email\":\"dos@lote-admin.cl\",\"password\":\"Ab12cd34\",\"phones\":[]}]";
+		mockMvc.perform(post("/admin/users/batch").contentType(MediaType.APPLICATION_JSON).content(batch))
+				.andExpect(status().isUnauthorized());
+		mockMvc.perform(post("/admin/users/batch").header("X-Admin-Token", "secreto-admin")
+				.contentType(MediaType.APPLICATION_JSON).content(batch))
+				.andExpect(status().isCreated())
+				.andExpect(jsonPath("$.length()").value(2))
+				.andExpect(jsonPath("$[1].email").value("dos@lote-admin.cl"));
+	}
+
+	@Test
+	void missingQueryParameterIsBadRequest() throws Exception {
+		mockMvc.perform(get("/admin/users/by-phone").header("X-Admin-Token", "secreto-admin"))
+				.andExpect(status().isBadRequest())
+				.andExpect(jsonPath("$.error[0].detail").value("Falta el parámetro number"));
+	}
+
+}
@@ -0,0 +1,53 @@
+package cl.fernando.login_service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import cl.fernando.login_service.dto.PhoneRequest;
+import cl.fernando.login_service.dto.UserRequest;
+import cl.fernando.login_service.dto.UserResponse;
+import cl.fernando.login_service.entity.User;
+import cl.fernando.login_service.repository.UserRepository;
+import cl.fernando.login_service.service.UserService;
+
+@SpringBootTest
+@ActiveProfiles("test")
+public class UserBatchInsertTest {
+
+	@Autowired
+	private UserService userService;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Test
+	@Transactional
+	void insertsUsersAndPhonesInBatch() {
+		List<UserRequest> requests = new ArrayList<>();
+		List<String> emails = new ArrayList<>();
+		for (int i = 0; i < 120; i++) {
+			emails.add("batch" + i + "@lote.cl");
+			requests.add(new UserRequest("Batch " + i, "batch" + i + "@lote.cl", "Ab12cd34",
+					Collections.singletonList(new PhoneRequest(12345678L + i, 2, "56"))));
+		}
+
+		List<UserResponse> responses = userService.createUsers(requests);
+
+		assertEquals(120, responses.size());
+		User stored = userRepository.findByEmail("batch119@lote.cl").orElseThrow(IllegalStateException::new);
+		assertEquals(1, stored.getPhones().size());
+		assertNotNull(stored.getPhones().get(0).getId());
+		assertEquals(120, userRepository.findExistingEmails(emails).size());
+	}
+
+}
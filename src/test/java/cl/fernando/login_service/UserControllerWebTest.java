@@ -0,0 +1,124 @@
+package cl.fernando.login_service;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Import(UserControllerWebTest.ParamController.class)
+public class UserControllerWebTest {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Test
+	void blockingModeAnswersWithoutAsyncDispatch() throws Exception {
+		mockMvc.perform(post("/api/sign-up").contentType(MediaType.APPLICATION_JSON)
+				.content("{\"name\":\"Web\",\"email\":\"web@mvc.cl\",\"password\":\"Ab12cd34\",\"phones\":[]}"))
+				.andExpect(request().asyncNotStarted())
+				.andExpect(status().isCreated())
+				.andExpect(jsonPath("$.email").value("web@mvc.cl"));
+	}
+
+	@Test
+	void serviceErrorsKeepTheirStatus() throws Exception {
+		mockMvc.perform(post("/api/sign-up").contentType(MediaType.APPLICATION_JSON)
+				.content("{\"name\":\"Web\",\"email\":\"no-es-email\",\"password\":\"Ab12cd34\"}"))
+				.andExpect(request().asyncNotStarted())
+				.andExpect(status().isUnprocessableEntity());
+	}
+
+	@Test
+	void batchSignUpIsNotPublic() throws Exception {
+		mockMvc.perform(post("/api/sign-up/batch").contentType(MediaType.APPLICATION_JSON)
+				.content("[{\"name\":\"Web\",\"email\":\"lote@mvc.cl\",\"password\":\"Ab12cd34\",\"phones\":[]}]"))
+				.andExpect(status().isNotFound());
+	}
+
+	@Test
+	void refreshFailsAfterLogout() throws Exception {
+		String body = mockMvc.perform(post("/api/sign-up").contentType(MediaType.APPLICATION_JSON)
+				.content("{\"name\":\"Web\",\"email\":\"salida@mvc.cl\",\"password\":\"Ab12cd34\",\"phones\":[]}"))
+				.andExpect(status().isCreated())
+				.andReturn().getResponse().getContentAsString();
+		JsonNode created = objectMapper.readTree(body);
+		String refresh = "{\"refreshToken\":\"" + created.get("refreshToken").asText() + "\"}";
+
+		mockMvc.perform(post("/api/logout").header("Authorization", "Bearer " + created.get("token").asText())
+				.contentType(MediaType.APPLICATION_JSON).content(refresh))
+				.andExpect(status().isNoContent());
+
+		mockMvc.perform(post("/api/token/refresh").contentType(MediaType.APPLICATION_JSON).content(refresh))
+				.andExpect(status().isUnauthorized());
+	}
+
+	@Test
+	void logoutWithoutRefreshTokenOnlyRevokesAccessToken() throws Exception {
+		String body = mockMvc.perform(post("/api/sign-up").contentType(MediaType.APPLICATION_JSON)
+				.content("{\"name\":\"Web\",\"email\":\"solo-bearer@mvc.cl\",\"password\":\"Ab12cd34\",\"phones\":[]}"))
+				.andReturn().getResponse().getContentAsString();
+		String token = objectMapper.readTree(body).get("token").asText();
+
+		mockMvc.perform(post("/api/logout").header("Authorization", "Bearer " + token))
+				.andExpect(status().isNoContent());
+		mockMvc.perform(post("/api/login").header("Authorization", "Bearer " + token))
+				.andExpect(status().isUnauthorized());
+	}
+
+	@Test
+	void missingHeaderIsBadRequest() throws Exception {
+		mockMvc.perform(post("/api/login"))
+				.andExpect(status().isBadRequest())
+				.andExpect(jsonPath("$.error[0].codigo").value(400))
+				.andExpect(jsonPath("$.error[0].detail").value("Falta el header Authorization"));
+	}
+
+	@Test
+	void malformedQueryParameterIsBadRequest() throws Exception {
+		mockMvc.perform(get("/test/param").param("limit", "diez"))
+				.andExpect(status().isBadRequest())
+				.andExpect(jsonPath("$.error[0].detail").value("Parámetro inválido: limit"));
+		mockMvc.perform(get("/test/param"))
+				.andExpect(status().isBadRequest())
+				.andExpect(jsonPath("$.error[0].detail").value("Falta el parámetro limit"));
+	}
+
+	@Test
+	void adminEndpointsAreOffByDefault() throws Exception {
+		mockMvc.perform(get("/admin/users/export"))
+				.andExpect(status().isNotFound());
+	}
+
+	// Ningún endpoint real recibe parámetros numéricos
+	@RestController
+	static class ParamController {
+
+		@GetMapping("/test/param")
+		long param(@RequestParam("limit") long limit) {
+			return limit;
+		}
+	}
+
+}
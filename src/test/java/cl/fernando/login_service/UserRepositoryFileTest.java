@@ -0,0 +1,13 @@
+package cl.fernando.login_service;
+
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.TestPropertySource;
+
+// Misma configuración que el perfil prod: H2 en archivo con AUTO_SERVER
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@TestPropertySource(properties = "spring.datasource.url=jdbc:h2:file:./build/h2/repositorio-${random.uuid};AUTO_SERVER=TRUE;DB_CLOSE_ON_EXIT=FALSE")
+public class UserRepositoryFileTest extends AbstractUserRepositoryTest {
+
+}
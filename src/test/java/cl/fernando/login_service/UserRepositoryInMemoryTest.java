@@ -0,0 +1,12 @@
+package cl.fernando.login_service;
+
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.TestPropertySource;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@TestPropertySource(properties = "spring.datasource.url=jdbc:h2:mem:repositorio;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE")
+public class UserRepositoryInMemoryTest extends AbstractUserRepositoryTest {
+
+}
@@ -0,0 +1,73 @@
+package cl.fernando.login_service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import java.util.Random;
+import java.util.regex.Pattern;
+
+import org.junit.jupiter.api.Test;
+
+import cl.fernando.login_service.service.UserRequestValidator;
+
+public class UserRequestValidatorTest {
+
+	// Expresiones originales de createUser, usadas como referencia
+	private static final Pattern EMAIL = Pattern.compile("^[\\w-\\.]+@([\\w-]+\\.)+[\\w-]{2,4}$");
+	private static final Pattern PASSWORD = Pattern.compile("^(?=.*[A-Z])(?=(?:.*\\d){2})([a-zA-Z\\d]{8,12})$");
+
+	private static final String[] EMAILS = {
+			"juan@testssw.cl", "juan.perez-x_1@mail.sub.example.com", "a@b.co", "a@b.c", "a@b.abcde",
+			"@b.cl", "a@", "a@.cl", "a@b..cl", "a@b.cl.", "a@@b.cl", "a b@c.cl", "fernando-at-mail.com",
+			".@-.--", "a@b-c.d_e", "á@b.cl", "a@b.cl\n", "", "a.b.c@d"
+	};
+
+	private static final String[] PASSWORDS = {
+			"Ab12cd34", "abcdef12", "ABCDEFGH12", "Ab1cdefg", "Ab12", "Ab12cd34ef567", "Ab12cd34ef56",
+			"Ab12-cd34", "AB12CD34", "12345678A", "Ñb12cd34", ""
+	};
+
+	@Test
+	void emailMatchesOriginalRegex() {
+		for (String email : EMAILS) {
+			assertEquals(EMAIL.matcher(email).matches(), UserRequestValidator.isValidEmail(email), email);
+		}
+	}
+
+	@Test
+	void passwordMatchesOriginalRegex() {
+		for (String password : PASSWORDS) {
+			assertEquals(PASSWORD.matcher(password).matches(), UserRequestValidator.isValidPassword(password), password);
+		}
+	}
+
+	@Test
+	void randomInputMatchesOriginalRegex() {
+		Random random = new Random(42);
+		String alphabet = "aZ09_-.@ +Ñ";
+		for (int n = 0; n < 20000; n++) {
+			StringBuilder sb = new StringBuilder();
+			int len = random.nextInt(16);
+			for (int i = 0; i < len; i++) {
+				sb.append(alphabet.charAt(random.nextInt(alphabet.length())));
+			}
+			String s = sb.toString();
+			assertEquals(EMAIL.matcher(s).matches(), UserRequestValidator.isValidEmail(s), s);
+			assertEquals(PASSWORD.matcher(s).matches(), UserRequestValidator.isValidPassword(s), s);
+		}
+	}
+
+	@Test
+	void rejectsNullAndOversizeInput() {
+		StringBuilder longEmail = new StringBuilder();
+		for (int i = 0; i < 300; i++) {
+			longEmail.append('a');
+		}
+		longEmail.append("@mail.cl");
+
+		assertFalse(UserRequestValidator.isValidEmail(null));
+		assertFalse(UserRequestValidator.isValidPassword(null));
+		assertFalse(UserRequestValidator.isValidEmail(longEmail.toString()));
+	}
+
+}
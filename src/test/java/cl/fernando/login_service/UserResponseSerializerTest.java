@@ -0,0 +1,114 @@
+package cl.fernando.login_service;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import cl.fernando.login_service.dto.PhoneResponse;
+import cl.fernando.login_service.dto.UserResponse;
+import cl.fernando.login_service.mapper.UserResponseJsonModule;
+import cl.fernando.login_service.mapper.UserResponseSerializer;
+
+public class UserResponseSerializerTest {
+
+	private final Random random = new Random(42);
+
+	// Misma configuración que arma Spring Boot cuando no hay spring.jackson.*
+	private static Jackson2ObjectMapperBuilder bootDefaults() {
+		return Jackson2ObjectMapperBuilder.json().featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+	}
+
+	@Test
+	void writesSameBytesAsDefaultSerializer() throws Exception {
+		ObjectMapper standard = bootDefaults().build();
+		ObjectMapper fast = bootDefaults().modulesToInstall(new UserResponseJsonModule()).build();
+		assertTrue((Object) fast.getSerializerProviderInstance().findValueSerializer(UserResponse.class)
+				instanceof UserResponseSerializer);
+
+		List<UserResponse> responses = new ArrayList<>();
+		for (int i = 0; i < 500; i++) {
+			responses.add(randomResponse(i));
+		}
+		responses.add(new UserResponse());
+		UserResponse tricky = randomResponse(1);
+		tricky.setName("Ñandú \"comillas\" \\ \n\t\u0001 日本 😀");
+		tricky.setPhones(Arrays.asList(new PhoneResponse(null, null, null), null));
+		responses.add(tricky);
+
+		for (UserResponse response : responses) {
+			assertArrayEquals(standard.writeValueAsBytes(response), fast.writeValueAsBytes(response),
+					response.getId());
+		}
+		assertArrayEquals(standard.writeValueAsBytes(responses), fast.writeValueAsBytes(responses));
+		assertEquals(standard.writerWithDefaultPrettyPrinter().writeValueAsString(tricky),
+				fast.writerWithDefaultPrettyPrinter().writeValueAsString(tricky));
+	}
+
+	@Test
+	void delegatesWhenConfigDiffers() throws Exception {
+		UserResponse response = randomResponse(7);
+		response.setToken(null);
+
+		ObjectMapper standard = bootDefaults().serializationInclusion(JsonInclude.Include.NON_NULL).build();
+		ObjectMapper fast = bootDefaults().serializationInclusion(JsonInclude.Include.NON_NULL)
+				.modulesToInstall(new UserResponseJsonModule()).build();
+		assertEquals(standard.writeValueAsString(response), fast.writeValueAsString(response));
+
+		ObjectMapper timestamps = Jackson2ObjectMapperBuilder.json().build();
+		ObjectMapper fastTimestamps = Jackson2ObjectMapperBuilder.json()
+				.modulesToInstall(new UserResponseJsonModule()).build();
+		assertEquals(timestamps.writeValueAsString(response), fastTimestamps.writeValueAsString(response));
+	}
+
+	@Test
+	void formatsLikeIsoLocalDateTime() {
+		char[] buffer = new char[29];
+		List<LocalDateTime> values = new ArrayList<>(Arrays.asList(
+				LocalDateTime.of(2026, 1, 2, 3, 4),
+				LocalDateTime.of(2026, 12, 31, 23, 59, 59, 1),
+				LocalDateTime.of(0, 1, 1, 0, 0, 0, 100_000_000),
+				LocalDateTime.of(9999, 6, 15, 12, 0, 30, 120_000),
+				LocalDateTime.now()));
+		for (int i = 0; i < 1000; i++) {
+			values.add(randomDateTime());
+		}
+		for (LocalDateTime value : values) {
+			int length = UserResponseSerializer.formatIso(value, buffer);
+			assertEquals(DateTimeFormatter.ISO_LOCAL_DATE_TIME.format(value), new String(buffer, 0, length));
+		}
+		assertEquals(-1, UserResponseSerializer.formatIso(LocalDateTime.of(10000, 1, 1, 0, 0), buffer));
+		assertEquals(-1, UserResponseSerializer.formatIso(LocalDateTime.of(-1, 1, 1, 0, 0), buffer));
+	}
+
+	private UserResponse randomResponse(int i) {
+		List<PhoneResponse> phones = i % 5 == 0 ? null
+				: i % 5 == 1 ? Collections.emptyList()
+				: Arrays.asList(new PhoneResponse(random.nextLong(), random.nextInt(100), "56"),
+						new PhoneResponse(12345678L, 9, null));
+		return new UserResponse("id-" + i, "Usuario " + i, "user" + i + "@json.cl",
+				randomDateTime(), i % 7 == 0 ? null : randomDateTime(), "token." + i, i % 2 == 0, phones,
+				i % 3 == 0 ? null : "refresh-" + i);
+	}
+
+	private LocalDateTime randomDateTime() {
+		int[] nanos = { 0, 1, 10_000, 120_000_000, random.nextInt(1_000_000_000), random.nextInt(1000) * 1_000_000 };
+		return LocalDateTime.of(random.nextInt(10000), 1 + random.nextInt(12), 1 + random.nextInt(28),
+				random.nextInt(24), random.nextInt(60), random.nextInt(60), nanos[random.nextInt(nanos.length)]);
+	}
+
+}
@@ -3,23 +3,40 @@ package cl.fernando.login_service;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.sql.SQLException;
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.Date;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
-import org.modelmapper.ModelMapper;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.context.ActiveProfiles;
 
@@ -28,9 +45,28 @@ import cl.fernando.login_service.dto.UserRequest;
 import cl.fernando.login_service.dto.UserResponse;
 import cl.fernando.login_service.entity.Phone;
 import cl.fernando.login_service.entity.User;
+import cl.fernando.login_service.exception.InvalidCredentialsException;
+import cl.fernando.login_service.exception.InvalidEmailException;
+import cl.fernando.login_service.exception.InvalidPasswordException;
+import cl.fernando.login_service.exception.NotFoundException;
+import cl.fernando.login_service.exception.TooManyAttemptsException;
+import cl.fernando.login_service.exception.ValidationException;
+import cl.fernando.login_service.mapper.UserMapper;
 import cl.fernando.login_service.repository.UserRepository;
+import cl.fernando.login_service.service.EmailIndex;
+import cl.fernando.login_service.service.LoginThrottle;
+import cl.fernando.login_service.service.LoginTracker;
+import cl.fernando.login_service.service.PasswordHashingService;
+import cl.fernando.login_service.service.RefreshTokenService;
+import cl.fernando.login_service.service.TokenDenylist;
+import cl.fernando.login_service.service.UserProfileCache;
+import cl.fernando.login_service.service.UserRequestValidator;
 import cl.fernando.login_service.service.UserServiceImpl;
+import cl.fernando.login_service.util.JwtKeyRing;
 import cl.fernando.login_service.util.JwtUtil;
+import cl.fernando.login_service.util.TokenClaims;
+import io.jsonwebtoken.JwtException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 
 @SpringBootTest
 @ActiveProfiles("test")
@@ -42,9 +78,17 @@ public class UserServiceTest {
     @Mock
     private JwtUtil jwtUtil;
 
-    private ModelMapper modelMapper;
+    @Mock
+    private RefreshTokenService refreshTokenService;
+
+    private UserMapper userMapper;
+
+    private LoginTracker loginTracker;
+
+    private TokenDenylist tokenDenylist;
+
+    private EmailIndex emailIndex;
 
-    @InjectMocks
     private UserServiceImpl userService;
 
     private UserRequest validRequest;
@@ -54,8 +98,17 @@ public class UserServiceTest {
     void setUp() {
         MockitoAnnotations.openMocks(this);
 
-        modelMapper = new ModelMapper();
-        userService = new UserServiceImpl(userRepository, jwtUtil, modelMapper);
+        userMapper = new UserMapper();
+        loginTracker = new LoginTracker(mock(JdbcTemplate.class), 500, new SimpleMeterRegistry());
+        tokenDenylist = new TokenDenylist("");
+        emailIndex = new EmailIndex(userRepository, 1000, 0.01);
+        userService = new UserServiceImpl(userRepository, jwtUtil, userMapper,
+                new PasswordHashingService(1, 4, 10000, 4, false, 250, new SimpleMeterRegistry()), emailIndex,
+                new UserRequestValidator(), loginTracker,
+                new UserProfileCache(userRepository, 100, Duration.ofMinutes(10), new SimpleMeterRegistry()),
+                tokenDenylist, refreshTokenService,
+                new LoginThrottle(64, 60000, 3, 60000, 100, new SimpleMeterRegistry()),
+                new SimpleMeterRegistry(), 1000);
 
         validRequest = new UserRequest();
         validRequest.setName("Juan Perez");
@@ -70,12 +123,10 @@ public class UserServiceTest {
         userEntity.setCreated(LocalDateTime.now());
         userEntity.setLastLogin(LocalDateTime.now());
         userEntity.setActive(true);
-        userEntity.setToken("fake-jwt-token");
     }
 
     @Test
     void testCreateUser_success() {
-        when(userRepository.findByEmail(validRequest.getEmail())).thenReturn(Optional.empty());
         when(jwtUtil.generateToken(validRequest.getEmail())).thenReturn("fake-jwt-token");
         when(userRepository.save(any(User.class))).thenAnswer(invocation -> invocation.getArgument(0));
 
@@ -100,7 +151,6 @@ public class UserServiceTest {
         phoneReq.setCountrycode("56");
         requestWithPhones.setPhones(Collections.singletonList(phoneReq));
 
-        when(userRepository.findByEmail(requestWithPhones.getEmail())).thenReturn(Optional.empty());
         when(jwtUtil.generateToken(requestWithPhones.getEmail())).thenReturn("fake-jwt-token");
         when(userRepository.save(any(User.class))).thenAnswer(invocation -> invocation.getArgument(0));
 
@@ -118,12 +168,80 @@ public class UserServiceTest {
 
     @Test
     void testCreateUser_userAlreadyExists() {
-        when(userRepository.findByEmail(validRequest.getEmail())).thenReturn(Optional.of(userEntity));
+        emailIndex.add(validRequest.getEmail());
+        when(userRepository.existsByEmail(validRequest.getEmail())).thenReturn(true);
+
+        RuntimeException ex = assertThrows(RuntimeException.class, () -> userService.createUser(validRequest));
+        assertEquals("Usuario ya existe", ex.getMessage());
+    }
+
+    @Test
+    void testCreateUser_newEmailSkipsLookup() {
+        when(jwtUtil.generateToken(validRequest.getEmail())).thenReturn("fake-jwt-token");
+        when(userRepository.save(any(User.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        userService.createUser(validRequest);
+
+        verify(userRepository, never()).existsByEmail(anyString());
+        assertTrue(emailIndex.mightContain(validRequest.getEmail()));
+    }
+
+    @Test
+    void testCreateUser_concurrentDuplicate() {
+        when(jwtUtil.generateToken(validRequest.getEmail())).thenReturn("fake-jwt-token");
+        when(userRepository.save(any(User.class))).thenThrow(integrityViolation("PUBLIC.UK_USER_EMAIL_INDEX_2 ON PUBLIC.USER(EMAIL)"));
 
         RuntimeException ex = assertThrows(RuntimeException.class, () -> userService.createUser(validRequest));
         assertEquals("Usuario ya existe", ex.getMessage());
+        assertTrue(emailIndex.mightContain(validRequest.getEmail()));
+    }
+
+    @Test
+    void testCreateUser_otherIntegrityViolationIsNotADuplicate() {
+        when(userRepository.save(any(User.class))).thenThrow(integrityViolation("PUBLIC.PRIMARY_KEY_2 ON PUBLIC.USER(ID)"));
+
+        assertThrows(DataIntegrityViolationException.class, () -> userService.createUser(validRequest));
+    }
+
+    private static DataIntegrityViolationException integrityViolation(String constraint) {
+        return new DataIntegrityViolationException("could not execute statement",
+                new ConstraintViolationException("violación", new SQLException(), constraint));
     }
     
+    @Test
+    void testCreateUsers_batch() {
+        UserRequest second = new UserRequest("Ana", "ana@test.com", "Xy34zw56", null);
+        when(jwtUtil.generateToken(anyString())).thenReturn("fake-jwt-token");
+
+        List<UserResponse> responses = userService.createUsers(Arrays.asList(validRequest, second));
+
+        assertEquals(2, responses.size());
+        assertEquals("ana@test.com", responses.get(1).getEmail());
+        verify(userRepository).insertAll(anyList());
+        verify(userRepository, never()).save(any(User.class));
+        assertTrue(emailIndex.mightContain("ana@test.com"));
+    }
+
+    @Test
+    void testCreateUsers_existingEmail() {
+        emailIndex.add(validRequest.getEmail());
+        when(userRepository.findExistingEmails(anyCollection()))
+            .thenReturn(Collections.singletonList(validRequest.getEmail()));
+
+        RuntimeException ex = assertThrows(RuntimeException.class,
+            () -> userService.createUsers(Collections.singletonList(validRequest)));
+        assertEquals("Usuario ya existe: juan@testssw.cl", ex.getMessage());
+        verify(userRepository, never()).insertAll(anyList());
+    }
+
+    @Test
+    void testCreateUsers_duplicateInBatch() {
+        RuntimeException ex = assertThrows(RuntimeException.class,
+            () -> userService.createUsers(Arrays.asList(validRequest, validRequest)));
+        assertEquals("Usuario ya existe: juan@testssw.cl", ex.getMessage());
+        verify(userRepository, never()).findExistingEmails(anyCollection());
+    }
+
     @Test
     void shouldThrowWhenEmailInvalid() {
         UserRequest invalidEmailRequest = new UserRequest();
@@ -131,7 +249,7 @@ public class UserServiceTest {
         invalidEmailRequest.setEmail("fernando-at-mail.com"); // ❌ no válido
         invalidEmailRequest.setPassword("Ab12cd34"); // válido
 
-        RuntimeException ex = assertThrows(RuntimeException.class,
+        RuntimeException ex = assertThrows(InvalidEmailException.class,
             () -> userService.createUser(invalidEmailRequest));
 
         assertEquals("Formato de email inválido", ex.getMessage());
@@ -144,7 +262,7 @@ public class UserServiceTest {
         invalidPasswordRequest.setEmail("fernando@mail.com"); // válido
         invalidPasswordRequest.setPassword("abcdef12"); // ❌ no cumple (sin mayúscula, solo 2 dígitos)
 
-        RuntimeException ex = assertThrows(RuntimeException.class,
+        RuntimeException ex = assertThrows(InvalidPasswordException.class,
             () -> userService.createUser(invalidPasswordRequest));
 
         assertEquals("Formato de password inválido", ex.getMessage());
@@ -152,18 +270,31 @@ public class UserServiceTest {
 
     @Test
     void testLogin_success() {
-        when(jwtUtil.extractEmail(anyString())).thenReturn(validRequest.getEmail());
-        when(userRepository.findByEmail(anyString())).thenReturn(Optional.of(userEntity));
-        when(jwtUtil.validateToken(anyString(), anyString())).thenReturn(true);
+        when(jwtUtil.parseToken(anyString())).thenReturn(validClaims(validRequest.getEmail()));
+        when(userRepository.findWithPhonesByEmail(anyString())).thenReturn(Optional.of(userEntity));
         when(jwtUtil.generateToken(anyString())).thenReturn("fake-jwt-token");
-        when(userRepository.save(any(User.class))).thenAnswer(invocation -> invocation.getArgument(0));
 
         UserResponse response = userService.login("token");
 
         assertNotNull(response);
         assertEquals("fake-jwt-token", response.getToken());
+        verify(userRepository, never()).save(any(User.class));
+        verify(refreshTokenService, never()).issue(anyString(), anyString());
+        assertEquals(1, loginTracker.getPendingCount());
     }
     
+    @Test
+    void testLogin_repeatedLoginServedFromCache() {
+        when(jwtUtil.parseToken(anyString())).thenReturn(validClaims(validRequest.getEmail()));
+        when(userRepository.findWithPhonesByEmail(anyString())).thenReturn(Optional.of(userEntity));
+        when(jwtUtil.generateToken(anyString())).thenReturn("fake-jwt-token");
+
+        userService.login("token");
+        userService.login("token");
+
+        verify(userRepository, times(1)).findWithPhonesByEmail(validRequest.getEmail());
+    }
+
     @Test
     void testLogin_withPhones() {
         // Crear un user con teléfonos
@@ -175,21 +306,14 @@ public class UserServiceTest {
         userWithPhones.setCreated(LocalDateTime.now());
         userWithPhones.setLastLogin(LocalDateTime.now());
         userWithPhones.setActive(true);
-        userWithPhones.setToken("fake-jwt-token");
 
-        Phone phone = new Phone();
-        phone.setNumber(87654321L);
-        phone.setCitycode(2);
-        phone.setCountrycode("56");
-        phone.setUser(userWithPhones);
+        Phone phone = new Phone(null, 87654321L, 2, "56", userWithPhones);
 
         userWithPhones.setPhones(Collections.singletonList(phone));
 
-        when(jwtUtil.extractEmail(anyString())).thenReturn(validRequest.getEmail());
-        when(userRepository.findByEmail(anyString())).thenReturn(Optional.of(userWithPhones));
-        when(jwtUtil.validateToken(anyString(), anyString())).thenReturn(true);
+        when(jwtUtil.parseToken(anyString())).thenReturn(validClaims(validRequest.getEmail()));
+        when(userRepository.findWithPhonesByEmail(anyString())).thenReturn(Optional.of(userWithPhones));
         when(jwtUtil.generateToken(anyString())).thenReturn("new-fake-jwt-token");
-        when(userRepository.save(any(User.class))).thenAnswer(invocation -> invocation.getArgument(0));
 
         UserResponse response = userService.login("token");
 
@@ -204,8 +328,8 @@ public class UserServiceTest {
 
     @Test
     void testLogin_userNotFound() {
-        when(jwtUtil.extractEmail(anyString())).thenReturn("notfound@test.com");
-        when(userRepository.findByEmail(anyString())).thenReturn(Optional.empty());
+        when(jwtUtil.parseToken(anyString())).thenReturn(validClaims("notfound@test.com"));
+        when(userRepository.findWithPhonesByEmail(anyString())).thenReturn(Optional.empty());
 
         RuntimeException ex = assertThrows(RuntimeException.class, () -> userService.login("token"));
         assertEquals("Usuario no encontrado", ex.getMessage());
@@ -213,26 +337,124 @@ public class UserServiceTest {
 
     @Test
     void testLogin_invalidToken() {
-        when(jwtUtil.extractEmail(anyString())).thenReturn(validRequest.getEmail());
-        when(userRepository.findByEmail(anyString())).thenReturn(Optional.of(userEntity));
-        when(jwtUtil.validateToken(anyString(), anyString())).thenReturn(false);
+        when(jwtUtil.parseToken(anyString())).thenThrow(new JwtException("expired"));
+
+        RuntimeException ex = assertThrows(RuntimeException.class, () -> userService.login("token"));
+        assertEquals("Token inválido o expirado", ex.getMessage());
+        verify(userRepository, never()).findWithPhonesByEmail(anyString());
+    }
+
+    @Test
+    void testLogout_revokesToken() {
+        when(jwtUtil.parseToken(anyString())).thenReturn(validClaims(validRequest.getEmail()));
+
+        userService.logout("token", null);
 
         RuntimeException ex = assertThrows(RuntimeException.class, () -> userService.login("token"));
         assertEquals("Token inválido o expirado", ex.getMessage());
+        verify(userRepository, never()).findWithPhonesByEmail(anyString());
+    }
+
+    @Test
+    void testLoginWithPassword_success() {
+        userEntity.setPassword(new BCryptPasswordEncoder(4).encode("Ab12cd34"));
+        when(userRepository.findWithPhonesByEmail(validRequest.getEmail())).thenReturn(Optional.of(userEntity));
+        when(jwtUtil.generateToken(validRequest.getEmail())).thenReturn("password-token");
+
+        UserResponse response = userService.loginWithPassword(validRequest.getEmail(), "Ab12cd34", "10.0.0.1");
+
+        assertEquals("password-token", response.getToken());
+        assertNotNull(response.getLastLogin());
+    }
+
+    @Test
+    void testLoginWithPassword_upgradesWeakHashInBackground() {
+        String weakHash = new BCryptPasswordEncoder(4).encode("Ab12cd34");
+        userEntity.setPassword(weakHash);
+        when(userRepository.findWithPhonesByEmail(validRequest.getEmail())).thenReturn(Optional.of(userEntity));
+        when(userRepository.updatePasswordHash(anyString(), anyString(), anyString())).thenReturn(1);
+
+        userService.loginWithPassword(validRequest.getEmail(), "Ab12cd34", "10.0.0.1");
+
+        // el servicio de hashing del test usa costo 4 con prefijo: el hash legado sin prefijo se actualiza
+        verify(userRepository, timeout(5000)).updatePasswordHash(eq(userEntity.getId()), eq(weakHash),
+                startsWith("{bcrypt}$2a$04$"));
+    }
+
+    @Test
+    void testLoginWithPassword_wrongPasswordAndUnknownUserLookTheSame() {
+        userEntity.setPassword(new BCryptPasswordEncoder(4).encode("Ab12cd34"));
+        when(userRepository.findWithPhonesByEmail(validRequest.getEmail())).thenReturn(Optional.of(userEntity));
+        when(userRepository.findWithPhonesByEmail("nadie@testssw.cl")).thenReturn(Optional.empty());
+
+        InvalidCredentialsException wrong = assertThrows(InvalidCredentialsException.class,
+                () -> userService.loginWithPassword(validRequest.getEmail(), "Zz99yy88", "10.0.0.1"));
+        InvalidCredentialsException unknown = assertThrows(InvalidCredentialsException.class,
+                () -> userService.loginWithPassword("nadie@testssw.cl", "Ab12cd34", "10.0.0.1"));
+
+        assertEquals(wrong.getMessage(), unknown.getMessage());
+        verify(jwtUtil, never()).generateToken(anyString());
+    }
+
+    @Test
+    void testLoginWithPassword_throttledAfterRepeatedFailures() {
+        when(userRepository.findWithPhonesByEmail(anyString())).thenReturn(Optional.empty());
+        for (int i = 0; i < 3; i++) {
+            assertThrows(InvalidCredentialsException.class,
+                    () -> userService.loginWithPassword("ataque@testssw.cl", "Ab12cd34", "10.0.0.2"));
+        }
+
+        assertThrows(TooManyAttemptsException.class,
+                () -> userService.loginWithPassword("ataque@testssw.cl", "Ab12cd34", "10.0.0.3"));
+        verify(userRepository, times(3)).findWithPhonesByEmail("ataque@testssw.cl");
+    }
+
+    @Test
+    void testParseToken_realJwt() {
+        JwtUtil realJwt = new JwtUtil(new JwtKeyRing("ES256", "", "", 1), 3600000, new SimpleMeterRegistry());
+        TokenClaims claims = realJwt.parseToken(realJwt.generateToken("juan@testssw.cl"));
+
+        assertEquals("juan@testssw.cl", claims.getEmail());
+        assertNotNull(claims.getId());
+        assertTrue(claims.getExpiration().after(new Date()));
+        assertThrows(JwtException.class, () -> realJwt.parseToken("no.es.jwt"));
     }
 
     @Test
     void testFindByEmail_found() {
-        when(userRepository.findByEmail("juan@testssw.cl")).thenReturn(Optional.of(userEntity));
+        when(userRepository.findWithPhonesByEmail("juan@testssw.cl")).thenReturn(Optional.of(userEntity));
         Optional<User> found = userService.findByEmail("juan@testssw.cl");
         assertTrue(found.isPresent());
     }
 
     @Test
     void testFindByEmail_notFound() {
-        when(userRepository.findByEmail("notfound@test.com")).thenReturn(Optional.empty());
+        when(userRepository.findWithPhonesByEmail("notfound@test.com")).thenReturn(Optional.empty());
         Optional<User> found = userService.findByEmail("notfound@test.com");
         assertFalse(found.isPresent());
     }
 
+    @Test
+    void testFindByPhone_normalizesNumber() {
+        when(userRepository.findWithPhonesByE164("+56212345678")).thenReturn(Collections.singletonList(userEntity));
+
+        List<UserResponse> found = userService.findByPhone("+56 2 1234-5678");
+
+        assertEquals(1, found.size());
+        assertEquals(userEntity.getEmail(), found.get(0).getEmail());
+        assertNull(found.get(0).getToken());
+    }
+
+    @Test
+    void testFindByPhone_notFoundOrInvalid() {
+        when(userRepository.findWithPhonesByE164(anyString())).thenReturn(Collections.emptyList());
+
+        assertThrows(NotFoundException.class, () -> userService.findByPhone("+56 2 1234-5678"));
+        assertThrows(ValidationException.class, () -> userService.findByPhone("sin número"));
+    }
+
+    private TokenClaims validClaims(String email) {
+        return new TokenClaims("jti-" + email, email, new Date(System.currentTimeMillis() + 60000));
+    }
+
 }
@@ -0,0 +1,114 @@
+package cl.fernando.login_service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import cl.fernando.login_service.dto.ImportResponse;
+import cl.fernando.login_service.dto.PhoneRequest;
+import cl.fernando.login_service.dto.UserExportRecord;
+import cl.fernando.login_service.dto.UserRequest;
+import cl.fernando.login_service.entity.User;
+import cl.fernando.login_service.exception.ValidationException;
+import cl.fernando.login_service.repository.UserRepository;
+import cl.fernando.login_service.service.UserServiceImpl;
+import cl.fernando.login_service.service.UserTransferService;
+
+@SpringBootTest(properties = "users.transfer.batch-size=2")
+@ActiveProfiles("test")
+public class UserTransferTest {
+
+	@Autowired
+	private UserTransferService transferService;
+
+	@Autowired
+	private UserServiceImpl userService;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Test
+	void exportsEveryUserWithPhonesAndImportKeepsHashes() throws Exception {
+		for (int i = 0; i < 3; i++) {
+			userService.createUser(new UserRequest("Export " + i, "export" + i + "@transfer.cl", "Ab12cd34",
+					Arrays.asList(new PhoneRequest(50000000L + i, 2, "56"), new PhoneRequest(60000000L + i, 9, "56"))));
+		}
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+		long exported = transferService.exportTo(out);
+
+		String ndjson = new String(out.toByteArray(), StandardCharsets.UTF_8);
+		List<String> lines = Arrays.asList(ndjson.split("\n"));
+		assertEquals(userRepository.count(), exported);
+		assertEquals(exported, lines.size());
+		assertTrue(ndjson.endsWith("\n"));
+		UserExportRecord record = objectMapper.readValue(lines.stream()
+				.filter(line -> line.contains("export1@transfer.cl")).findFirst().orElseThrow(IllegalStateException::new),
+				UserExportRecord.class);
+		User stored = userRepository.findByEmail("export1@transfer.cl").orElseThrow(IllegalStateException::new);
+		assertEquals(stored.getPassword(), record.getPassword());
+		assertEquals(2, record.getPhones().size());
+
+		// Mismo hash con otro email: tras importar se puede entrar con la contraseña original
+		String copies = lines.stream()
+				.filter(line -> line.contains("@transfer.cl"))
+				.map(line -> line.replace("@transfer.cl", "@importado.cl").replaceFirst("\"id\":\"[^\"]+\"", "\"id\":null"))
+				.collect(Collectors.joining("\n"));
+		String input = copies + "\n" + lines.get(0) + "\n{\"email\":\"sin-password@importado.cl\"}\n";
+
+		ImportResponse result = transferService.importFrom(new ByteArrayInputStream(input.getBytes(StandardCharsets.UTF_8)));
+
+		assertEquals(3, result.getImported());
+		assertEquals(2, result.getSkipped());
+		User imported = userRepository.findWithPhonesByEmail("export1@importado.cl").orElseThrow(IllegalStateException::new);
+		assertEquals(stored.getPassword(), imported.getPassword());
+		assertEquals(2, imported.getPhones().size());
+		assertNotNull(userService.loginWithPassword("export1@importado.cl", "Ab12cd34", "127.0.0.1").getToken());
+	}
+
+	@Test
+	void keepsImportingPastAConstraintViolation() throws Exception {
+		userService.createUser(new UserRequest("Dueño", "duenio@choque.cl", "Ab12cd34", null));
+		String takenId = userRepository.findByEmail("duenio@choque.cl").orElseThrow(IllegalStateException::new).getId();
+		String input = "{\"id\":\"" + takenId + "\",\"email\":\"choque@importado2.cl\",\"password\":\"h\"}\n"
+				+ "{\"email\":\"ok1@importado2.cl\",\"password\":\"h\"}\n"
+				+ "{\"email\":\"ok2@importado2.cl\",\"password\":\"h\"}\n";
+
+		ImportResponse result = transferService.importFrom(new ByteArrayInputStream(input.getBytes(StandardCharsets.UTF_8)));
+
+		assertEquals(2, result.getImported());
+		assertEquals(0, result.getSkipped());
+		assertEquals(1, result.getFailed());
+		assertEquals(Collections.singletonList(1L), result.getFailedLines());
+		assertEquals(2, userRepository.findExistingEmails(Arrays.asList("ok1@importado2.cl", "ok2@importado2.cl",
+				"choque@importado2.cl")).size());
+	}
+
+	@Test
+	void rejectsMalformedInput() {
+		byte[] input = "{\"email\":\"roto@transfer.cl\",".getBytes(StandardCharsets.UTF_8);
+
+		assertThrows(ValidationException.class, () -> transferService.importFrom(new ByteArrayInputStream(input)));
+		assertEquals(Collections.emptyList(), userRepository.findExistingEmails(Collections.singletonList("roto@transfer.cl")));
+	}
+
+}